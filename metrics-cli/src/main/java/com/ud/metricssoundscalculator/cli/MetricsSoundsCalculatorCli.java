@@ -0,0 +1,161 @@
+package com.ud.metricssoundscalculator.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ud.metricssoundscalculator.core.AcousticService;
+import com.ud.metricssoundscalculator.core.AudioRange;
+import com.ud.metricssoundscalculator.core.ShardCoordinator;
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Analiza en paralelo todos los WAV/FLAC de una carpeta usando solo el núcleo,
+ * sin levantar Spring, y escribe un JSON por archivo.
+ *
+ * Uso:
+ *   java [--add-modules jdk.incubator.vector] -jar metrics-cli.jar CARPETA
+ *        [--out CARPETA] [--threads N] [--window-sec S]
+ *        [--thresholds 65,70] [--hysteresis-db 3] [--min-event-sec 1] [--shards N]
+ *
+ * Con --shards N (> 1) cada WAV se divide en N fragmentos de tiempo analizados en
+ * procesos worker; niveles y eventos son idénticos al análisis en un solo proceso, el
+ * espectro coincide salvo redondeo y el JSON no incluye el espectrograma. --threads
+ * limita también el número de workers vivos a la vez.
+ */
+public class MetricsSoundsCalculatorCli {
+
+    public static void main(String[] args) throws Exception {
+        int status = run(args);
+        if (status != 0) System.exit(status);
+    }
+
+    /**
+     * Ejecuta el análisis por lotes.
+     *
+     * @return código de salida: 0 si todo fue bien, 1 si algún archivo falló, 2 si los argumentos no son válidos
+     */
+    static int run(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        String input = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i].substring(2), args[++i]);
+            } else if (input == null) {
+                input = args[i];
+            } else {
+                return usage("Argumento no reconocido: " + args[i]);
+            }
+        }
+        if (input == null) return usage("Falta la carpeta de entrada");
+
+        Path inputDir = Paths.get(input);
+        Path outDir = Paths.get(options.getOrDefault("out", "results"));
+        int threads;
+        int windowSec;
+        List<Double> thresholds;
+        double hysteresisDb;
+        double minEventSec;
+        int shards;
+        try {
+            threads = positiveInt(options, "threads", Runtime.getRuntime().availableProcessors());
+            windowSec = positiveInt(options, "window-sec", 60);
+            thresholds = new ArrayList<>();
+            for (String t : options.getOrDefault("thresholds", "65,70").split(",")) {
+                thresholds.add(number("thresholds", t));
+            }
+            hysteresisDb = number("hysteresis-db", options.getOrDefault("hysteresis-db", "3"));
+            minEventSec = number("min-event-sec", options.getOrDefault("min-event-sec", "1"));
+            shards = positiveInt(options, "shards", 1);
+        } catch (IllegalArgumentException e) {
+            return usage(e.getMessage());
+        }
+
+        if (!Files.isDirectory(inputDir)) return usage("La carpeta no existe: " + inputDir);
+        Files.createDirectories(outDir);
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(inputDir)) {
+            files = stream.filter(p -> {
+                String name = p.getFileName().toString().toLowerCase(Locale.ROOT);
+                return Files.isRegularFile(p) && (name.endsWith(".wav") || name.endsWith(".flac"));
+            }).sorted().collect(Collectors.toList());
+        }
+        if (files.isEmpty()) {
+            System.err.println("No se encontraron archivos .wav/.flac en: " + inputDir);
+            return 0;
+        }
+
+        AcousticService acousticService = new AcousticService();
+        ShardCoordinator coordinator = new ShardCoordinator(new ShardCoordinator.LocalProcessRunner(), shards, threads);
+        ObjectMapper mapper = new ObjectMapper();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+
+        long start = System.nanoTime();
+        List<Future<String>> results = new ArrayList<>();
+        for (Path file : files) {
+            results.add(pool.submit(() -> {
+                File wav = file.toFile();
+                AcousticAnalysisDTO dto = shards > 1
+                        ? coordinator.getAnalysis(wav, windowSec, thresholds, hysteresisDb, minEventSec)
+                        : acousticService.getAnalysis(wav, windowSec, thresholds, hysteresisDb, minEventSec, AudioRange.FULL);
+
+                String name = wav.getName();
+                String base = name.substring(0, name.lastIndexOf('.'));
+                mapper.writeValue(outDir.resolve(base + "_result.json").toFile(), dto);
+                return String.format(Locale.ROOT, "%s\tLeq=%.1f dB\tLmax=%.1f dB", name, dto.getLeq(), dto.getLmax());
+            }));
+        }
+        pool.shutdown();
+
+        int failed = 0;
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                System.out.println(results.get(i).get());
+            } catch (ExecutionException e) {
+                failed++;
+                System.err.println(files.get(i).getFileName() + "\tERROR: " + e.getCause());
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%d archivos, %d con error, %.1f s%n",
+                files.size(), failed, (System.nanoTime() - start) / 1e9);
+        return failed > 0 ? 1 : 0;
+    }
+
+    // Entero mayor que cero; si no, IllegalArgumentException con el nombre de la opción
+    private static int positiveInt(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) return parsed;
+        } catch (NumberFormatException e) {
+            // se informa abajo
+        }
+        throw new IllegalArgumentException("Valor no válido para --" + name + ": " + value);
+    }
+
+    private static double number(String name, String value) {
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            if (Double.isFinite(parsed)) return parsed;
+        } catch (NumberFormatException e) {
+            // se informa abajo
+        }
+        throw new IllegalArgumentException("Valor no válido para --" + name + ": " + value);
+    }
+
+    private static int usage(String message) {
+        System.err.println(message);
+        System.err.println("Uso: java -jar metrics-cli.jar CARPETA [--out CARPETA] [--threads N] [--window-sec S]"
+                + " [--thresholds 65,70] [--hysteresis-db 3] [--min-event-sec 1] [--shards N]");
+        return 2;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ud.metricssoundscalculator.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ud.metricssoundscalculator.core.AcousticService;
+import com.ud.metricssoundscalculator.core.AudioRange;
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsSoundsCalculatorCliTests {
+
+    private static final int FS = 48000;
+
+    @TempDir
+    Path tmp;
+
+    // WAV mono de 16 bits con un seno de 1 kHz
+    private static void writeTone(Path file, int seconds, double amplitude) throws Exception {
+        int n = FS * seconds;
+        ByteBuffer wav = ByteBuffer.allocate(44 + 2 * n).order(ByteOrder.LITTLE_ENDIAN);
+        wav.put(new byte[]{'R', 'I', 'F', 'F'}).putInt(36 + 2 * n)
+                .put(new byte[]{'W', 'A', 'V', 'E'})
+                .put(new byte[]{'f', 'm', 't', ' '}).putInt(16)
+                .putShort((short) 1).putShort((short) 1).putInt(FS).putInt(FS * 2)
+                .putShort((short) 2).putShort((short) 16)
+                .put(new byte[]{'d', 'a', 't', 'a'}).putInt(2 * n);
+        for (int i = 0; i < n; i++) {
+            wav.putShort((short) (amplitude * Short.MAX_VALUE * Math.sin(2 * Math.PI * 1000 * i / FS)));
+        }
+        Files.write(file, wav.array());
+    }
+
+    @Test
+    void writesOneJsonPerAudioFile() throws Exception {
+        Path in = Files.createDirectories(tmp.resolve("in"));
+        Path out = tmp.resolve("out");
+        writeTone(in.resolve("a.wav"), 3, 0.5);
+        writeTone(in.resolve("B.WAV"), 2, 0.1);
+        Files.writeString(in.resolve("notes.txt"), "no es audio");
+
+        int status = MetricsSoundsCalculatorCli.run(new String[]{
+                in.toString(), "--out", out.toString(), "--threads", "2", "--window-sec", "1",
+                "--thresholds", "60, 80", "--min-event-sec", "0.5"});
+
+        assertEquals(0, status);
+        try (Stream<Path> written = Files.list(out)) {
+            assertEquals(List.of("B_result.json", "a_result.json"),
+                    written.map(p -> p.getFileName().toString()).sorted().toList());
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode a = mapper.readTree(out.resolve("a_result.json").toFile());
+        JsonNode b = mapper.readTree(out.resolve("B_result.json").toFile());
+        assertEquals(FS, a.get("sampleRate").asInt());
+        assertEquals(24, a.get("levels").size()); // 3 s / 125 ms
+        assertEquals(3, a.get("leqSeries").size()); // ventanas de 1 s
+        assertEquals(16, b.get("levels").size());
+        assertTrue(a.get("durationAbove").has("80 dB"));
+
+        // Mismo resultado que el núcleo con las opciones pasadas
+        AcousticAnalysisDTO expected = new AcousticService()
+                .getAnalysis(in.resolve("a.wav").toFile(), 1, List.of(60.0, 80.0), 3, 0.5, AudioRange.FULL);
+        assertEquals(expected.getLeq(), a.get("leq").asDouble(), 0.0);
+        assertEquals(expected.getLmax(), a.get("lmax").asDouble(), 0.0);
+    }
+
+    @Test
+    void failedFileGivesExitCodeOne() throws Exception {
+        Path in = Files.createDirectories(tmp.resolve("in"));
+        Path out = tmp.resolve("out");
+        writeTone(in.resolve("ok.wav"), 1, 0.5);
+        Files.writeString(in.resolve("broken.wav"), "no es un WAV");
+
+        assertEquals(1, MetricsSoundsCalculatorCli.run(new String[]{in.toString(), "--out", out.toString()}));
+        assertTrue(Files.exists(out.resolve("ok_result.json")));
+        assertFalse(Files.exists(out.resolve("broken_result.json")));
+    }
+
+    @Test
+    void invalidArgumentsGiveExitCodeTwo() throws Exception {
+        assertEquals(2, MetricsSoundsCalculatorCli.run(new String[0]));
+        assertEquals(2, MetricsSoundsCalculatorCli.run(new String[]{tmp.resolve("missing").toString()}));
+        assertEquals(2, MetricsSoundsCalculatorCli.run(new String[]{tmp.toString(), "extra"}));
+    }
+
+    @Test
+    void malformedNumbersGiveExitCodeTwo() throws Exception {
+        Path in = Files.createDirectories(tmp.resolve("in"));
+        writeTone(in.resolve("a.wav"), 1, 0.5);
+        Path out = tmp.resolve("out");
+
+        for (String[] option : List.of(
+                new String[]{"--shards", "x"},
+                new String[]{"--threads", "0"},
+                new String[]{"--window-sec", "abc"},
+                new String[]{"--thresholds", "65,setenta"},
+                new String[]{"--hysteresis-db", ""},
+                new String[]{"--min-event-sec", "NaN"})) {
+            assertEquals(2, MetricsSoundsCalculatorCli.run(new String[]{
+                    in.toString(), "--out", out.toString(), option[0], option[1]}), String.join(" ", option));
+        }
+        // Se rechazan antes de analizar nada
+        assertFalse(Files.exists(out));
+    }
+}
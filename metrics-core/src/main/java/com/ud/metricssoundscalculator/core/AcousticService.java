@@ -0,0 +1,505 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.*;
+
+import javax.sound.sampled.*;
+import java.io.File;
+import java.util.*;
+
+public class AcousticService {
+
+    private final SpatialService spatialService = new SpatialService();
+    private final WeightingService weightingService = new WeightingService();
+    private final CorrectionService correctionService = new CorrectionService();
+    private final FlacService flacService = new FlacService();
+    private final SignalKernels kernels = SignalKernels.get();
+
+    // Retorna todo el análisis
+    public AcousticAnalysisDTO getAnalysis(File wavFile, int windowSec, List<Double> thresholds,
+                                           double hysteresisDb, double minEventSec,
+                                           AudioRange range) throws Exception {
+        AudioData audioData = loadAudioData(wavFile, range, true);
+        double[] signal = audioData.getSignal();
+        int fs = audioData.getSampleRate();
+
+        // Mismo estado parcial que usa el análisis por fragmentos, con un único fragmento
+        TimeWeighting timeWeighting = new TimeWeighting(fs, audioData.getChannels(), signal.length).process(signal);
+        AnalysisPartial partial = AnalysisPartial.compute(signal, audioData.getMono(), 0, 0, signal.length, signal.length,
+                fs, audioData.getChannels(), windowSec, timeWeighting, true);
+
+        return buildAnalysis(partial, thresholds, hysteresisDb, minEventSec, audioData.getStartSec());
+    }
+
+    /**
+     * Construye el análisis completo a partir del estado parcial de toda la señal
+     * (un fragmento o la combinación ordenada de varios).
+     *
+     * @param startSec inicio de la señal dentro del archivo, para los tiempos de los eventos
+     */
+    public AcousticAnalysisDTO buildAnalysis(AnalysisPartial partial, List<Double> thresholds,
+                                             double hysteresisDb, double minEventSec, double startSec) {
+        int fs = partial.getSampleRate();
+        int block = NoiseEventDetector.blockSize(fs);
+        double[] blockSumSq = partial.getBlockSumSq();
+
+        // --- Estadísticas básicas (sumas por bloque, siempre en el mismo orden) ---
+        double sumSq = 0;
+        for (double s : blockSumSq) sumSq += s;
+        sumSq += partial.getTailSumSq();
+        double meanSquare = sumSq / partial.getTotalSamples();
+        double leq = leqFromMeanSquare(meanSquare);
+        Map<String, Double> ln = calculateLn(partial.getSecondSumSq(), fs);
+        double[] lmaxmin = partial.getTotalSamples() == 0
+                ? new double[]{Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY}
+                : new double[]{20 * Math.log10(partial.getMaxAbs() + 1e-12), 20 * Math.log10(partial.getMinAbs() + 1e-12)};
+        double deltaL = computeDeltaL(ln);
+
+        // --- Ponderación temporal Fast/Slow/Impulse ---
+        TimeWeightingDTO timeWeighting = toTimeWeightingDTO(partial.getTimeWeighting(), fs, partial.getChannels());
+
+        // --- Eventos y tiempo sobre umbrales (una sola pasada sobre los bloques) ---
+        NoiseEventDetector detector = new NoiseEventDetector(thresholds, hysteresisDb, minEventSec, fs);
+        double[] levels = new double[blockSumSq.length];
+        for (int b = 0; b < blockSumSq.length; b++) {
+            double meanSq = blockSumSq[b] / block;
+            detector.addBlock(meanSq);
+            levels[b] = SoundLevels.fromMeanSquare(meanSq);
+        }
+        detector.finish();
+        Map<String, Double> durationAbove = detector.getDurationAbove();
+
+        // --- Series temporales ---
+        double[] windowSumSq = partial.getWindowSumSq();
+        int windowSize = fs * partial.getWindowSec();
+        double[] leqSeries = new double[windowSumSq.length];
+        for (int f = 0; f < windowSumSq.length; f++) {
+            leqSeries[f] = SoundLevels.fromMeanSquare(windowSumSq[f] / windowSize);
+        }
+
+        // --- Frecuencia ---
+        double[] spectrum;
+        if (partial.getSpectralWindows() > 0) {
+            spectrum = correctionService.normalizeSpectrum(
+                    welchSpectrum(partial.getPowerSum(), partial.getSpectralWindows()), windowSize);
+        } else {
+            spectrum = correctionService.normalizeSpectrum(partial.getShortSpectrum(), partial.getTotalSamples());
+        }
+        Map<String, Double> octaveBands = computeOctaveBands(spectrum, fs);
+
+        // --- Histogramas ---
+        Map<String, Integer> histogram = computeLevelHistogram(levels);
+
+        // --- Construcción DTO completo ---
+        AcousticAnalysisDTO dto = new AcousticAnalysisDTO();
+        dto.setSampleRate(fs);
+        dto.setChannels(partial.getChannels());
+        dto.setWeighting("A"); // fijo porque aplicamos ponderación A
+
+        dto.setLeq(leq);
+        dto.setLn(ln);
+        dto.setLmax(lmaxmin[0]);
+        dto.setLmin(lmaxmin[1]);
+        dto.setDeltaL(deltaL);
+        dto.setTimeWeighting(timeWeighting);
+
+        dto.setDurationAbove(durationAbove);
+        dto.setDurationAbove65(durationAbove.get(NoiseEventDetector.thresholdKey(65)));
+        dto.setDurationAbove70(durationAbove.get(NoiseEventDetector.thresholdKey(70)));
+        dto.setEvents(shiftEvents(detector.getEvents(), startSec));
+
+        dto.setLevels(levels);
+        dto.setLeqSeries(leqSeries);
+
+        dto.setSpectrumPreview(Arrays.copyOf(spectrum, Math.min(512, spectrum.length)));
+        dto.setOctaveBands(octaveBands);
+        dto.setSpectrogram(partial.getSpectrogram());
+        partial.getFeatures().fill(dto);
+
+        dto.setLevelHistogram(histogram);
+
+        // Espaciales (placeholder hasta que se implementen)
+        dto.setIacc(null);
+        dto.setTiacc(null);
+        dto.setWiacc(null);
+
+        return dto;
+    }
+
+    /**
+     * Espectro de Welch: media de la potencia de las ventanas del espectrograma, devuelta
+     * como magnitud. Sigue sin normalizar: la escala depende del tamaño de la ventana.
+     *
+     * @param powerSum suma de la potencia de las ventanas, bin a bin
+     */
+    private double[] welchSpectrum(double[] powerSum, int windows) {
+        double[] magnitude = new double[powerSum.length];
+        for (int k = 0; k < magnitude.length; k++) magnitude[k] = Math.sqrt(powerSum[k] / windows);
+        return magnitude;
+    }
+
+    // Retorna DTO con histograma y datos base
+    public HistogramDTO getHistogram(File wavFile, AudioRange range) throws Exception {
+        AudioData audioData = loadAudioData(wavFile, range);
+
+        double[] frameLevels = computeFrameLevels(audioData.getSignal(), audioData.getSampleRate(), 125);
+        Map<String, Integer> histogram = computeLevelHistogram(frameLevels);
+        double[] lmaxmin = computeLmaxLmin(audioData.getSignal());
+        double leq = calculateLeq(audioData.getSignal());
+
+        HistogramDTO dto = new HistogramDTO();
+        dto.setHistogram(histogram);
+        dto.setLmin(lmaxmin[1]);
+        dto.setLmax(lmaxmin[0]);
+        dto.setLeq(leq);
+        dto.setSampleRate(audioData.getSampleRate());
+        dto.setChannels(audioData.getChannels());
+        return dto;
+    }
+
+    // Retorna DTO con espectrograma
+    public SpectrogramDTO getSpectrogram(File wavFile, int windowSec, AudioRange range) throws Exception {
+        AudioData audioData = loadAudioData(wavFile, range);
+
+        double[][] spectrogram = computeSpectrogram(audioData.getSignal(), audioData.getSampleRate(), windowSec);
+
+        SpectrogramDTO dto = new SpectrogramDTO();
+        dto.setSpectrogram(spectrogram);
+        dto.setSampleRate(audioData.getSampleRate());
+        dto.setWindowSizeSec(windowSec);
+        dto.setFrames(spectrogram.length);
+        dto.setChannels(audioData.getChannels());
+        return dto;
+    }
+
+    // Retorna DTO con evolución temporal de Leq
+    public LeqSeriesDTO getLeqSeries(File wavFile, int windowSec, AudioRange range) throws Exception {
+        AudioData audioData = loadAudioData(wavFile, range);
+
+        double[] series = computeLeqMoving(audioData.getSignal(), audioData.getSampleRate(), windowSec);
+
+        LeqSeriesDTO dto = new LeqSeriesDTO();
+        dto.setLeqSeries(series);
+        dto.setWindowSizeSec(windowSec);
+        dto.setSampleRate(audioData.getSampleRate());
+        dto.setChannels(audioData.getChannels());
+        return dto;
+    }
+
+    // Retorna DTO con bandas de octava
+    public OctaveBandsDTO getOctaveBands(File wavFile, AudioRange range) throws Exception {
+        AudioData audioData = loadAudioData(wavFile, range);
+
+        double[] signal = audioData.getSignal();
+        // Misma escala que las bandas de /analyze, que promedian ventanas más cortas
+        double[] spectrum = correctionService.normalizeSpectrum(
+                correctionService.computeSpectrum(signal, audioData.getSampleRate()), signal.length);
+        Map<String, Double> bands = computeOctaveBands(spectrum, audioData.getSampleRate());
+
+        OctaveBandsDTO dto = new OctaveBandsDTO();
+        dto.setOctaveBands(bands);
+        dto.setSampleRate(audioData.getSampleRate());
+        dto.setChannels(audioData.getChannels());
+        return dto;
+    }
+
+    // Retorna DTO con eventos de ruido y tiempo sobre umbrales
+    public NoiseEventsDTO getEvents(File wavFile, List<Double> thresholds,
+                                    double hysteresisDb, double minEventSec, AudioRange range) throws Exception {
+        AudioData audioData = loadAudioData(wavFile, range);
+
+        NoiseEventDetector detector = new NoiseEventDetector(thresholds, hysteresisDb, minEventSec, audioData.getSampleRate())
+                .process(audioData.getSignal(), audioData.getSampleRate());
+
+        NoiseEventsDTO dto = new NoiseEventsDTO();
+        dto.setEvents(shiftEvents(detector.getEvents(), audioData.getStartSec()));
+        dto.setDurationAbove(detector.getDurationAbove());
+        dto.setHysteresisDb(hysteresisDb);
+        dto.setMinEventSec(minEventSec);
+        dto.setSampleRate(audioData.getSampleRate());
+        dto.setChannels(audioData.getChannels());
+        return dto;
+    }
+
+    // Retorna DTO con niveles Fast/Slow/Impulse (LAFmax, LASmax, LAImax, mínimos y series)
+    public TimeWeightingDTO getTimeWeighting(File wavFile, AudioRange range) throws Exception {
+        return computeTimeWeighting(loadAudioData(wavFile, range));
+    }
+
+    private TimeWeightingDTO computeTimeWeighting(AudioData audioData) {
+        double[] signal = audioData.getSignal();
+        TimeWeighting tw = new TimeWeighting(audioData.getSampleRate(), audioData.getChannels(), signal.length)
+                .process(signal);
+        return toTimeWeightingDTO(tw, audioData.getSampleRate(), audioData.getChannels());
+    }
+
+    private TimeWeightingDTO toTimeWeightingDTO(TimeWeighting tw, int fs, int channels) {
+        TimeWeightingDTO dto = new TimeWeightingDTO();
+        dto.setLafMax(tw.getLafMax());
+        dto.setLasMax(tw.getLasMax());
+        dto.setLaiMax(tw.getLaiMax());
+        dto.setLafMin(tw.getLafMin());
+        dto.setLasMin(tw.getLasMin());
+        dto.setLaiMin(tw.getLaiMin());
+        dto.setLafSeries(tw.getFastSeries());
+        dto.setLasSeries(tw.getSlowSeries());
+        dto.setLaiSeries(tw.getImpulseSeries());
+        dto.setSampleRate(fs);
+        dto.setChannels(channels);
+        return dto;
+    }
+
+    private AudioData loadAudioData(File wavFile, AudioRange range) throws Exception {
+        return loadAudioData(wavFile, range, false);
+    }
+
+    /**
+     * @param withMono conservar además la señal sin ponderar mezclada a mono (descriptores espectrales)
+     */
+    private AudioData loadAudioData(File wavFile, AudioRange range, boolean withMono) throws Exception {
+        // FLAC: decodificación por tramas con ponderación A en línea
+        if (flacService.isFlac(wavFile)) {
+            return flacService.decodeWeighted(wavFile, range, withMono);
+        }
+        if (!range.isFull()) {
+            return loadAudioRange(wavFile, range, withMono);
+        }
+
+        AudioInputStream audioStream = AudioSystem.getAudioInputStream(wavFile);
+        AudioFormat format = audioStream.getFormat();
+
+        int fs = (int) format.getSampleRate();
+        int channels = format.getChannels();
+
+        byte[] audioBytes = audioStream.readAllBytes();
+        double[] signal = correctionService.bytesToDoubleArray(audioBytes, format);
+
+        // Aplicar ponderación A por defecto (siempre trabajamos en dBA)
+        double[] weightedSignal = weightingService.applyAWeighting(signal, fs);
+
+        AudioData audioData = new AudioData();
+        audioData.setSignal(weightedSignal);
+        // Con un canal la señal cruda ya es la mezcla: no se ha modificado al ponderar
+        if (withMono) audioData.setMono(channels == 1 ? signal : correctionService.downmix(signal, 0, channels));
+        audioData.setSampleRate(fs);
+        audioData.setChannels(channels);
+
+        return audioData;
+    }
+
+    /**
+     * Lee solo el tramo pedido: salta al byte calculado desde la cabecera WAV y
+     * decodifica el tramo más un pre-roll para que el filtro A se asiente.
+     */
+    private AudioData loadAudioRange(File wavFile, AudioRange range, boolean withMono) throws Exception {
+        AudioFileFormat fileFormat = AudioSystem.getAudioFileFormat(wavFile);
+        AudioFormat format = fileFormat.getFormat();
+
+        int fs = (int) format.getSampleRate();
+        int channels = format.getChannels();
+        int frameSize = format.getFrameSize();
+
+        WavHeader header = WavHeader.read(wavFile);
+        long totalFrames = header != null ? header.getDataLength() / frameSize : fileFormat.getFrameLength();
+        long first = range.firstFrame(fs);
+        long end = range.endFrame(fs, totalFrames);
+        if (first >= end) {
+            throw new IllegalArgumentException("El tramo pedido está fuera del archivo");
+        }
+        long from = Math.max(0, first - (long) (WeightingService.WARM_UP_SEC * fs));
+
+        byte[] audioBytes;
+        if (header != null) {
+            audioBytes = header.readFrames(wavFile, from, end, frameSize);
+        } else {
+            // Otros contenedores (AIFF, AU): se salta el inicio sin convertirlo
+            try (AudioInputStream audioStream = AudioSystem.getAudioInputStream(wavFile)) {
+                audioStream.skipNBytes(from * frameSize);
+                audioBytes = end == Long.MAX_VALUE
+                        ? audioStream.readAllBytes()
+                        : audioStream.readNBytes(Math.toIntExact((end - from) * frameSize));
+            }
+        }
+        double[] signal = correctionService.bytesToDoubleArray(audioBytes, format);
+
+        int warmUp = (int) Math.min(signal.length, (first - from) * channels);
+        double[] weightedSignal = weightingService.applyAWeighting(signal, fs, warmUp);
+
+        AudioData audioData = new AudioData();
+        audioData.setSignal(weightedSignal);
+        if (withMono) audioData.setMono(correctionService.downmix(signal, warmUp, channels));
+        audioData.setSampleRate(fs);
+        audioData.setChannels(channels);
+        audioData.setStartSec((double) first / fs);
+
+        return audioData;
+    }
+
+    // Los tiempos de los eventos se expresan respecto al inicio del archivo
+    private List<NoiseEventDTO> shiftEvents(List<NoiseEventDTO> events, double offsetSec) {
+        if (offsetSec == 0) return events;
+        for (NoiseEventDTO event : events) {
+            event.setStart(event.getStart() + offsetSec);
+            event.setEnd(event.getEnd() + offsetSec);
+        }
+        return events;
+    }
+
+    private double calculateLeq(double[] signal) {
+        return calculateLeq(signal, 0, signal.length);
+    }
+
+    private double calculateLeq(double[] signal, int from, int to) {
+        return leqFromMeanSquare(meanSquare(signal, from, to));
+    }
+
+    private double meanSquare(double[] signal, int from, int to) {
+        return kernels.sumOfSquares(signal, from, to) / (to - from);
+    }
+
+    private double leqFromMeanSquare(double meanSquare) {
+        return SoundLevels.fromMeanSquare(meanSquare);
+    }
+
+    private Map<String, Double> calculateLn(double[] secondSumSq, int fs) {
+        int frameLen = fs; // 1 segundo
+        double[] leqFrames = new double[secondSumSq.length];
+
+        for (int i = 0; i < leqFrames.length; i++) {
+            leqFrames[i] = leqFromMeanSquare(secondSumSq[i] / frameLen);
+        }
+
+        Arrays.sort(leqFrames);
+        Map<String, Double> ln = new HashMap<>();
+        ln.put("L10", percentile(leqFrames, 90));
+        ln.put("L50", percentile(leqFrames, 50));
+        ln.put("L90", percentile(leqFrames, 10));
+        return ln;
+    }
+
+    private double percentile(double[] arr, double p) {
+        int idx = (int) Math.ceil(p / 100.0 * arr.length) - 1;
+        return arr[Math.min(idx, arr.length - 1)];
+    }
+
+    /**
+     * Calcula bandas de tercio de octava (simplificado)
+     * a partir de un espectro normalizado con {@link CorrectionService#normalizeSpectrum}
+     */
+    public Map<String, Double> computeOctaveBands(double[] spectrum, int sampleRate) {
+        Map<String, Double> bands = new LinkedHashMap<>();
+
+        // Frecuencias centrales normalizadas ISO 266 (31.5 Hz – 16 kHz)
+        double[] centers = {31.5, 63, 125, 250, 500, 1000, 2000, 4000, 8000, 16000};
+
+        double binWidth = (double) sampleRate / (2 * spectrum.length);
+
+        for (double fc : centers) {
+            double fLow = fc / Math.pow(2, 1.0/6);   // -1/6 de octava
+            double fHigh = fc * Math.pow(2, 1.0/6); // +1/6 de octava
+
+            int binLow = (int) Math.floor(fLow / binWidth);
+            int binHigh = (int) Math.ceil(fHigh / binWidth);
+
+            double sum = 0.0;
+            for (int i = binLow; i < binHigh && i < spectrum.length; i++) {
+                sum += Math.pow(spectrum[i], 2); // potencia
+            }
+
+            double levelDb = 10 * Math.log10(sum + 1e-12);
+            bands.put(String.format("%.0f Hz", fc), levelDb);
+        }
+
+        return bands;
+    }
+
+    /**
+     * Histograma de niveles (intervalos de 5 dB entre 30–100 dB)
+     */
+    public Map<String, Integer> computeLevelHistogram(double[] levels) {
+        Map<String, Integer> histogram = new LinkedHashMap<>();
+
+        int min = 30;
+        int max = 100;
+        int step = 5;
+
+        for (int db = min; db < max; db += step) {
+            String key = db + "–" + (db + step) + " dB";
+            histogram.put(key, 0);
+        }
+
+        for (double l : levels) {
+            int bin = ((int) l - min) / step;
+            if (bin >= 0 && bin < histogram.size()) {
+                String key = (min + bin*step) + "–" + (min + (bin+1)*step) + " dB";
+                histogram.put(key, histogram.get(key) + 1);
+            }
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Calcula ΔL = L10 - L90
+     */
+    private double computeDeltaL(Map<String, Double> ln) {
+        Double l10 = ln.get("L10");
+        Double l90 = ln.get("L90");
+        if (l10 != null && l90 != null) {
+            return l10 - l90;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Calcula niveles sonoros por ventana de tiempo (en dB SPL)
+     */
+    public double[] computeFrameLevels(double[] signal, int fs, int windowMs) {
+        int windowSize = (int) (fs * (windowMs / 1000.0));
+        int numFrames = signal.length / windowSize;
+        double[] levels = new double[numFrames];
+        kernels.blockLevelsDb(signal, windowSize, levels);
+        return levels;
+    }
+
+    private double[] computeLmaxLmin(double[] signal) {
+        if (signal.length == 0) {
+            return new double[]{Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        }
+
+        // log10 es monótona: basta con convertir el pico y el valle a dB una sola vez
+        double lmax = 20 * Math.log10(kernels.maxAbs(signal, 0, signal.length) + 1e-12);
+        double lmin = 20 * Math.log10(kernels.minAbs(signal, 0, signal.length) + 1e-12);
+
+        return new double[]{lmax, lmin};
+    }
+
+    private double[] computeLeqMoving(double[] signal, int fs, int windowSec) {
+        int frameSize = fs * windowSec;
+        int frames = signal.length / frameSize;
+
+        double[] leqSeries = new double[frames];
+        for (int f = 0; f < frames; f++) {
+            double sumSq = kernels.sumOfSquares(signal, f * frameSize, (f + 1) * frameSize);
+            leqSeries[f] = SoundLevels.fromMeanSquare(sumSq / frameSize);
+        }
+
+        return leqSeries;
+    }
+
+    private double[][] computeSpectrogram(double[] signal, int fs, int windowSec) {
+        int windowSize = fs * windowSec;
+        int frames = signal.length / windowSize;
+
+        double[][] spectrogram = new double[frames][];
+        for (int f = 0; f < frames; f++) {
+            int start = f * windowSize;
+            int end = Math.min(start + windowSize, signal.length);
+            double[] segment = Arrays.copyOfRange(signal, start, end);
+
+            double[] spectrum = correctionService.computeSpectrum(segment, fs);
+            spectrogram[f] = spectrum;
+        }
+
+        return spectrogram;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,364 @@
+package com.ud.metricssoundscalculator.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Estado parcial y combinable del análisis completo sobre un fragmento [start, end)
+ * de la señal ponderada A (índices de la señal intercalada).
+ * <p>
+ * Cada fragmento guarda solo valores por bloque que no dependen de cómo se dividió la
+ * señal: sumas de cuadrados por bloque de 125 ms, por segundo y por ventana, picos y el
+ * estado de la ponderación temporal. Las reducciones que sí dependen del orden (Leq global,
+ * eventos) se hacen una sola vez al final recorriendo los bloques en orden, de modo que
+ * combinar fragmentos da exactamente el mismo resultado que analizar la señal de una vez.
+ * <p>
+ * Del espectro solo se guardan acumuladores (potencia sumada de las ventanas para el
+ * espectro de Welch y los de {@link SpectralFeatures}, calculados como en process_audio.py
+ * sobre la señal sin ponderar mezclada a mono), que ocupan lo mismo que un espectro
+ * sea cual sea la duración del fragmento. Se suman por fragmento, así que difieren del
+ * análisis de una vez solo en el redondeo. El espectrograma por ventana se conserva solo si
+ * se pide, no se combina ni se transporta entre procesos.
+ * <p>
+ * Un bloque pertenece al fragmento que contiene su primera muestra; el fragmento debe
+ * disponer de las muestras necesarias para completarlo aunque pasen de {@code end}.
+ */
+public class AnalysisPartial {
+
+    private final int sampleRate;
+    private final int channels;
+    private final int windowSec;
+    private final long totalSamples;   // longitud de la señal completa
+    private final String kernels;      // núcleos numéricos con que se calcularon las sumas
+
+    private long start;
+    private long end;
+
+    private double[] blockSumSq;       // bloques de 125 ms completos
+    private double tailSumSq;          // muestras tras el último bloque completo
+    private double[] secondSumSq;      // tramas de 1 s (percentiles Ln)
+    private double[] windowSumSq;      // ventanas de windowSec (Leq móvil)
+    private double[] powerSum;         // suma de la potencia de cada ventana (Welch)
+    private int spectralWindows;
+    private double[] shortSpectrum;    // espectro global si la señal no llena una ventana
+    private SpectralFeatures features;
+    private double[][] spectrogram;    // espectro de cada ventana, solo si se pidió
+    private double maxAbs = Double.NEGATIVE_INFINITY;
+    private double minAbs = Double.POSITIVE_INFINITY;
+    private TimeWeighting timeWeighting;
+
+    // Estado de los filtros y detectores en los bordes; dos fragmentos vecinos solo
+    // encajan si el estado final de uno coincide bit a bit con el inicial del otro
+    private double[] startState;
+    private double[] endState;
+
+    private AnalysisPartial(int sampleRate, int channels, int windowSec, long totalSamples, String kernels) {
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.windowSec = windowSec;
+        this.totalSamples = totalSamples;
+        this.kernels = kernels;
+    }
+
+    /**
+     * Calcula el estado parcial del fragmento [start, end).
+     *
+     * @param signal        señal ponderada; signal[i] corresponde a la muestra global base + i
+     * @param mono          señal sin ponderar mezclada a mono; mono[i] corresponde a la trama base / channels + i
+     * @param timeWeighting ponderación temporal ya procesada sobre el fragmento
+     * @param keepSpectrogram conservar el espectro de cada ventana para el DTO
+     */
+    public static AnalysisPartial compute(double[] signal, double[] mono, long base, long start, long end, long totalSamples,
+                                          int sampleRate, int channels, int windowSec,
+                                          TimeWeighting timeWeighting, boolean keepSpectrogram) {
+        SignalKernels kernels = SignalKernels.get();
+        CorrectionService correctionService = new CorrectionService();
+
+        AnalysisPartial p = new AnalysisPartial(sampleRate, channels, windowSec, totalSamples, kernels.name());
+        p.start = start;
+        p.end = end;
+        p.timeWeighting = timeWeighting;
+
+        // --- Bloques de 125 ms (el último incompleto es la cola) ---
+        int block = NoiseEventDetector.blockSize(sampleRate);
+        long first = ceilDiv(start, block);
+        long last = ceilDiv(end, block);
+        long tailBlock = totalSamples / block;
+        long full = Math.min(last, tailBlock);
+        p.blockSumSq = new double[(int) Math.max(0, full - first)];
+        for (long b = first; b < full; b++) {
+            int from = (int) (b * block - base);
+            p.blockSumSq[(int) (b - first)] = kernels.sumOfSquares(signal, from, from + block);
+        }
+        if (tailBlock >= first && tailBlock < last && tailBlock * block < totalSamples) {
+            int from = (int) (tailBlock * block - base);
+            p.tailSumSq = kernels.sumOfSquares(signal, from, (int) (totalSamples - base));
+        }
+
+        // --- Tramas de 1 s y ventanas ---
+        p.secondSumSq = frameSums(signal, base, start, end, totalSamples, sampleRate, kernels);
+        int window = sampleRate * windowSec;
+        p.windowSumSq = frameSums(signal, base, start, end, totalSamples, window, kernels);
+
+        long firstWindow = ceilDiv(start, window);
+        p.spectralWindows = p.windowSumSq.length;
+        if (keepSpectrogram) p.spectrogram = new double[p.spectralWindows][];
+        for (int f = 0; f < p.spectralWindows; f++) {
+            int from = (int) ((firstWindow + f) * window - base);
+            double[] segment = Arrays.copyOfRange(signal, from, from + window);
+            double[] spectrum = correctionService.computeSpectrum(segment, sampleRate);
+            if (p.powerSum == null) p.powerSum = new double[spectrum.length];
+            for (int k = 0; k < spectrum.length; k++) p.powerSum[k] += spectrum[k] * spectrum[k];
+            if (keepSpectrogram) p.spectrogram[f] = spectrum;
+        }
+
+        // Señal más corta que una ventana: espectro sobre la señal entera
+        if (totalSamples < window && start == 0 && end == totalSamples) {
+            int n = (int) totalSamples;
+            p.shortSpectrum = correctionService.computeSpectrum(Arrays.copyOfRange(signal, (int) -base, (int) -base + n), sampleRate);
+        }
+
+        // --- Descriptores espectrales: mono sin ponderar, ventanas de windowSec segundos ---
+        p.features = new SpectralFeatures(sampleRate);
+        long monoBase = base / channels;
+        long startFrame = start / channels;
+        long endFrame = end / channels;
+        long totalFrames = totalSamples / channels;
+        int monoWindow = sampleRate * windowSec;
+        long lastMonoWindow = Math.min(ceilDiv(endFrame, monoWindow), totalFrames / monoWindow);
+        for (long w = ceilDiv(startFrame, monoWindow); w < lastMonoWindow; w++) {
+            int from = (int) (w * monoWindow - monoBase);
+            double[] segment = Arrays.copyOfRange(mono, from, from + monoWindow);
+            p.features.addFrame(correctionService.computeSpectrum(segment, sampleRate), segment);
+        }
+        if (totalFrames < monoWindow && start == 0 && end == totalSamples) {
+            double[] segment = Arrays.copyOfRange(mono, (int) -monoBase, (int) (totalFrames - monoBase));
+            p.features.addFrame(correctionService.computeSpectrum(segment, sampleRate), segment);
+        }
+        if (endFrame > startFrame) {
+            p.features.addEnergy(kernels.sumOfSquares(mono, (int) (startFrame - monoBase), (int) (endFrame - monoBase)),
+                    endFrame - startFrame);
+        }
+
+        // --- Picos ---
+        if (end > start) {
+            p.maxAbs = kernels.maxAbs(signal, (int) (start - base), (int) (end - base));
+            p.minAbs = kernels.minAbs(signal, (int) (start - base), (int) (end - base));
+        }
+        return p;
+    }
+
+    // Sumas de cuadrados de las tramas completas de tamaño size que empiezan en [start, end)
+    private static double[] frameSums(double[] signal, long base, long start, long end, long totalSamples,
+                                      int size, SignalKernels kernels) {
+        long first = ceilDiv(start, size);
+        long last = Math.min(ceilDiv(end, size), totalSamples / size);
+        double[] sums = new double[(int) Math.max(0, last - first)];
+        for (long f = first; f < last; f++) {
+            int from = (int) (f * size - base);
+            sums[(int) (f - first)] = kernels.sumOfSquares(signal, from, from + size);
+        }
+        return sums;
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+
+    /**
+     * Añade el fragmento inmediatamente posterior (next.start == end).
+     */
+    public AnalysisPartial append(AnalysisPartial next) {
+        if (next.start != end) {
+            throw new IllegalArgumentException("Los fragmentos no son consecutivos: " + end + " != " + next.start);
+        }
+        if (next.sampleRate != sampleRate || next.channels != channels || next.windowSec != windowSec
+                || next.totalSamples != totalSamples) {
+            throw new IllegalArgumentException("Los fragmentos pertenecen a análisis distintos");
+        }
+        if (!next.kernels.equals(kernels)) {
+            throw new IllegalStateException("Fragmentos calculados con núcleos distintos (" + kernels
+                    + ", " + next.kernels + "): las sumas no serían idénticas");
+        }
+
+        blockSumSq = concat(blockSumSq, next.blockSumSq);
+        tailSumSq += next.tailSumSq; // solo un fragmento tiene cola: la suma es exacta
+        secondSumSq = concat(secondSumSq, next.secondSumSq);
+        windowSumSq = concat(windowSumSq, next.windowSumSq);
+
+        if (powerSum == null) {
+            powerSum = next.powerSum;
+        } else if (next.powerSum != null) {
+            for (int k = 0; k < powerSum.length; k++) powerSum[k] += next.powerSum[k];
+        }
+        spectralWindows += next.spectralWindows;
+        features.append(next.features);
+        spectrogram = null; // el espectrograma de un fragmento no representa la señal combinada
+
+        maxAbs = Math.max(maxAbs, next.maxAbs);
+        minAbs = Math.min(minAbs, next.minAbs);
+        timeWeighting.append(next.timeWeighting);
+
+        end = next.end;
+        endState = next.endState;
+        return this;
+    }
+
+    private static double[] concat(double[] a, double[] b) {
+        double[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(sampleRate);
+        out.writeInt(channels);
+        out.writeInt(windowSec);
+        out.writeLong(totalSamples);
+        out.writeUTF(kernels);
+        out.writeLong(start);
+        out.writeLong(end);
+
+        writeDoubles(out, blockSumSq);
+        out.writeDouble(tailSumSq);
+        writeDoubles(out, secondSumSq);
+        writeDoubles(out, windowSumSq);
+        writeDoubles(out, powerSum);
+        out.writeInt(spectralWindows);
+        writeDoubles(out, shortSpectrum);
+        features.write(out);
+        out.writeDouble(maxAbs);
+        out.writeDouble(minAbs);
+        timeWeighting.write(out);
+
+        writeDoubles(out, startState);
+        writeDoubles(out, endState);
+    }
+
+    public static AnalysisPartial read(DataInputStream in) throws IOException {
+        AnalysisPartial p = new AnalysisPartial(in.readInt(), in.readInt(), in.readInt(), in.readLong(), in.readUTF());
+        p.start = in.readLong();
+        p.end = in.readLong();
+
+        p.blockSumSq = readDoubles(in);
+        p.tailSumSq = in.readDouble();
+        p.secondSumSq = readDoubles(in);
+        p.windowSumSq = readDoubles(in);
+        p.powerSum = readDoubles(in);
+        p.spectralWindows = in.readInt();
+        p.shortSpectrum = readDoubles(in);
+        p.features = SpectralFeatures.read(in);
+        p.maxAbs = in.readDouble();
+        p.minAbs = in.readDouble();
+        p.timeWeighting = TimeWeighting.read(in);
+
+        p.startState = readDoubles(in);
+        p.endState = readDoubles(in);
+        return p;
+    }
+
+    static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        out.writeInt(values == null ? -1 : values.length);
+        if (values == null) return;
+        for (double v : values) out.writeDouble(v);
+    }
+
+    static double[] readDoubles(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) values[i] = in.readDouble();
+        return values;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getWindowSec() {
+        return windowSec;
+    }
+
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public double[] getBlockSumSq() {
+        return blockSumSq;
+    }
+
+    public double getTailSumSq() {
+        return tailSumSq;
+    }
+
+    public double[] getSecondSumSq() {
+        return secondSumSq;
+    }
+
+    public double[] getWindowSumSq() {
+        return windowSumSq;
+    }
+
+    public double[] getPowerSum() {
+        return powerSum;
+    }
+
+    public int getSpectralWindows() {
+        return spectralWindows;
+    }
+
+    public double[] getShortSpectrum() {
+        return shortSpectrum;
+    }
+
+    public SpectralFeatures getFeatures() {
+        return features;
+    }
+
+    /**
+     * Espectro de cada ventana, o null si no se pidió al calcular o el estado combina
+     * varios fragmentos.
+     */
+    public double[][] getSpectrogram() {
+        return spectrogram;
+    }
+
+    public double getMaxAbs() {
+        return maxAbs;
+    }
+
+    public double getMinAbs() {
+        return minAbs;
+    }
+
+    public TimeWeighting getTimeWeighting() {
+        return timeWeighting;
+    }
+
+    public double[] getStartState() {
+        return startState;
+    }
+
+    public double[] getEndState() {
+        return endState;
+    }
+
+    void setBoundaryStates(double[] startState, double[] endState) {
+        this.startState = startState;
+        this.endState = endState;
+    }
+}
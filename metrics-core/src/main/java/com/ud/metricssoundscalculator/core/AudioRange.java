@@ -0,0 +1,56 @@
+package com.ud.metricssoundscalculator.core;
+
+/**
+ * Tramo [start, end) en segundos a analizar dentro de una grabación.
+ * Un extremo nulo equivale al inicio o al final del archivo.
+ */
+public class AudioRange {
+
+    public static final AudioRange FULL = new AudioRange(null, null);
+
+    private final Double start; // inicio (s), null = desde el principio
+    private final Double end;   // fin (s), null = hasta el final
+
+    private AudioRange(Double start, Double end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public static AudioRange of(Double start, Double end) {
+        if (start == null && end == null) return FULL;
+        if (start != null && !(start >= 0)) {
+            throw new IllegalArgumentException("start debe ser mayor o igual a 0");
+        }
+        if (end != null && !(end > (start == null ? 0 : start))) {
+            throw new IllegalArgumentException("end debe ser mayor que start");
+        }
+        return new AudioRange(start, end);
+    }
+
+    public boolean isFull() {
+        return start == null && end == null;
+    }
+
+    public Double getStart() {
+        return start;
+    }
+
+    public Double getEnd() {
+        return end;
+    }
+
+    /**
+     * Primera trama (muestra por canal) del tramo.
+     */
+    public long firstFrame(double frameRate) {
+        return start == null ? 0 : (long) Math.floor(start * frameRate);
+    }
+
+    /**
+     * Trama final (exclusiva), acotada a totalFrames cuando se conoce (valor negativo si no).
+     */
+    public long endFrame(double frameRate, long totalFrames) {
+        long last = end == null ? Long.MAX_VALUE : (long) Math.ceil(end * frameRate);
+        return totalFrames >= 0 ? Math.min(last, totalFrames) : last;
+    }
+}
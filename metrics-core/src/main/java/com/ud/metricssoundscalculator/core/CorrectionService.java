@@ -0,0 +1,120 @@
+package com.ud.metricssoundscalculator.core;
+
+import be.tarsos.dsp.util.fft.FFT;
+
+import javax.sound.sampled.AudioFormat;
+
+public class CorrectionService {
+
+    private final SignalKernels kernels = SignalKernels.get();
+
+    public double[] bytesToDoubleArray(byte[] bytes, AudioFormat format) {
+        int sampleSize = format.getSampleSizeInBits() / 8;
+        double[] samples = new double[bytes.length / sampleSize];
+        bytesToDoubleArray(bytes, bytes.length, format.getSampleSizeInBits(), samples, 0);
+        // PCM sin signo (WAV de 8 bits): el cero está en la mitad del rango
+        if (AudioFormat.Encoding.PCM_UNSIGNED.equals(format.getEncoding())) {
+            for (int i = 0; i < samples.length; i++) samples[i] += samples[i] < 0 ? 1 : -1;
+        }
+        return samples;
+    }
+
+    /**
+     * Convierte los primeros {@code len} bytes en muestras y las escribe en {@code out}
+     * a partir de {@code offset}. Permite decodificar por bloques sin arreglos intermedios.
+     *
+     * @return número de muestras escritas
+     */
+    public int bytesToDoubleArray(byte[] bytes, int len, int sampleSizeInBits, double[] out, int offset) {
+        int sampleSize = sampleSizeInBits / 8;
+        int length = len / sampleSize;
+        double scale = Math.pow(2, sampleSizeInBits - 1);
+
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = decodeSample(bytes, i * sampleSize, sampleSize) / scale;
+        }
+        return length;
+    }
+
+    /**
+     * Muestra PCM little-endian con signo de {@code sampleSize} bytes, con extensión de signo.
+     * La comparten la lectura de archivos y el monitoreo en vivo para que den el mismo nivel.
+     */
+    public static int decodeSample(byte[] bytes, int offset, int sampleSize) {
+        int value = 0;
+        for (int b = 0; b < sampleSize; b++) {
+            value |= (bytes[offset + b] & 0xFF) << (b * 8);
+        }
+        int shift = 32 - sampleSize * 8;
+        return (value << shift) >> shift;
+    }
+
+    /**
+     * Mezcla a mono (media de los canales, como process_audio.py) la señal intercalada
+     * desde {@code from} hasta el final.
+     */
+    public double[] downmix(double[] interleaved, int from, int channels) {
+        double[] mono = new double[(interleaved.length - from) / channels];
+        downmix(interleaved, from, mono.length * channels, channels, mono, 0);
+        return mono;
+    }
+
+    /**
+     * Mezcla a mono {@code samples} muestras intercaladas desde {@code from} y escribe las
+     * tramas en {@code out} a partir de {@code offset}.
+     *
+     * @return número de tramas escritas
+     */
+    public int downmix(double[] interleaved, int from, int samples, int channels, double[] out, int offset) {
+        int frames = samples / channels;
+        for (int f = 0; f < frames; f++) {
+            double sum = 0;
+            for (int c = 0; c < channels; c++) sum += interleaved[from + f * channels + c];
+            out[offset + f] = sum / channels;
+        }
+        return frames;
+    }
+
+    public double[] computeSpectrum(double[] samples, int sampleRate) {
+        int n = samples.length;
+
+        // FFT necesita tamaño potencia de 2 → padding si no lo es
+        int fftSize = 1;
+        while (fftSize < n) {
+            fftSize *= 2;
+        }
+
+        FFT fft = new FFT(fftSize);
+        float[] fftData = new float[fftSize * 2]; // real + imag
+
+        // FFT en TarsosDSP requiere float[]: convertimos directamente sobre el buffer
+        kernels.toFloat(samples, fftData, n);
+
+        // Ejecutamos FFT
+        fft.forwardTransform(fftData);
+
+        // Magnitudes
+        float[] spectrum = new float[fftSize / 2];
+        fft.modulus(fftData, spectrum);
+
+        // Convertimos a double para el resto de cálculos
+        double[] spectrumDouble = new double[spectrum.length];
+        kernels.toDouble(spectrum, spectrumDouble, spectrum.length);
+
+        return spectrumDouble;
+    }
+
+    /**
+     * Escala un espectro de {@link #computeSpectrum} (FFT sin normalizar de {@code n} muestras)
+     * para que la suma de la potencia de un rango de bins sea la media de cuadrados de la
+     * señal en esa banda. Así los niveles por banda no dependen del tamaño de la FFT.
+     */
+    public double[] normalizeSpectrum(double[] spectrum, long n) {
+        // Parseval con zero-padding: sum |X|^2 = fftSize * sum x^2; un solo lado guarda la mitad
+        double scale = Math.sqrt(2.0 / ((double) n * 2 * spectrum.length));
+        double[] normalized = new double[spectrum.length];
+        for (int k = 0; k < spectrum.length; k++) normalized[k] = spectrum[k] * scale;
+        return normalized;
+    }
+
+}
\ No newline at end of file
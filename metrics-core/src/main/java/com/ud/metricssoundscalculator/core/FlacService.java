@@ -0,0 +1,191 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.AudioData;
+import org.jflac.FLACDecoder;
+import org.jflac.PCMProcessor;
+import org.jflac.frame.Frame;
+import org.jflac.metadata.StreamInfo;
+import org.jflac.util.ByteData;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Decodificación FLAC en Java puro (jflac), trama por trama.
+ * Cada trama se convierte a double y se pondera A directamente sobre el arreglo
+ * final, sin conservar el PCM completo en memoria.
+ */
+public class FlacService {
+
+    private static final byte[] MAGIC = {'f', 'L', 'a', 'C'};
+
+    private final CorrectionService correctionService = new CorrectionService();
+
+    public boolean isFlac(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] header = in.readNBytes(MAGIC.length);
+            return Arrays.equals(header, MAGIC);
+        }
+    }
+
+    /**
+     * Lee solo los metadatos STREAMINFO (frecuencia, canales, bits y muestras totales).
+     */
+    public StreamInfo readStreamInfo(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            FLACDecoder decoder = new FLACDecoder(in);
+            decoder.readMetadata();
+            return decoder.getStreamInfo();
+        }
+    }
+
+    /**
+     * Decodifica el archivo aplicando ponderación A en línea.
+     * Las muestras se intercalan por canal igual que en la ruta WAV, de modo que
+     * las métricas coinciden con las del mismo audio en PCM.
+     */
+    public AudioData decodeWeighted(File file) throws IOException {
+        return decodeWeighted(file, AudioRange.FULL);
+    }
+
+    /**
+     * Decodifica solo el tramo pedido. Las tramas FLAC anteriores al pre-roll se leen
+     * sin convertir ni ponderar, y la decodificación se detiene al llegar al final del tramo.
+     */
+    public AudioData decodeWeighted(File file, AudioRange range) throws IOException {
+        return decodeWeighted(file, range, false);
+    }
+
+    /**
+     * @param withMono conservar además la señal sin ponderar mezclada a mono
+     */
+    public AudioData decodeWeighted(File file, AudioRange range, boolean withMono) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            FLACDecoder decoder = new FLACDecoder(in);
+            decoder.readMetadata();
+            StreamInfo info = decoder.getStreamInfo();
+            if (info == null) {
+                throw new IOException("FLAC sin bloque STREAMINFO: " + file.getName());
+            }
+
+            int fs = info.getSampleRate();
+            int channels = info.getChannels();
+            long totalFrames = info.getTotalSamples() > 0 ? info.getTotalSamples() : -1;
+            long first = range.firstFrame(fs);
+            long end = range.endFrame(fs, totalFrames);
+            if (first >= end) {
+                throw new IllegalArgumentException("El tramo pedido está fuera del archivo");
+            }
+            long from = Math.max(0, first - (long) (WeightingService.WARM_UP_SEC * fs));
+
+            // Posición (en tramas) del bloque actual; las tramas FLAC no se alinean con el tramo
+            long position = 0;
+            WeightedSink sink = null;
+            ByteData pcm = null;
+            Frame frame;
+            while (position < end && (frame = decoder.readNextFrame()) != null) {
+                int blockSize = frame.header.blockSize;
+                if (position + blockSize > from) {
+                    if (sink == null) {
+                        // El pre-roll empieza en el primer bloque que toca el tramo
+                        long skip = (first - position) * channels;
+                        long keep = end == Long.MAX_VALUE ? -1 : (end - first) * channels;
+                        sink = new WeightedSink(info, skip, keep, withMono);
+                    }
+                    pcm = decoder.decodeFrame(frame, pcm);
+                    sink.processPCM(pcm);
+                }
+                position += blockSize;
+            }
+            if (sink == null) {
+                if (!range.isFull()) {
+                    throw new IllegalArgumentException("El tramo pedido está fuera del archivo");
+                }
+                sink = new WeightedSink(info, 0, -1, withMono); // archivo sin tramas
+            }
+
+            AudioData audioData = new AudioData();
+            audioData.setSignal(sink.result());
+            audioData.setMono(sink.mono());
+            audioData.setSampleRate(fs);
+            audioData.setChannels(channels);
+            audioData.setStartSec((double) first / fs);
+            return audioData;
+        }
+    }
+
+    /**
+     * Recibe el PCM de cada trama decodificada y lo vuelca ponderado en el arreglo de salida.
+     * Las primeras {@code skip} muestras solo asientan el filtro y se descartan. Si se pide,
+     * guarda también la mezcla a mono sin ponderar de las muestras conservadas.
+     */
+    private class WeightedSink implements PCMProcessor {
+        private final int bitsPerSample;
+        private final int channels;
+        private final WeightingService.BiquadFilter[] filters;
+        private final long limit;
+        private long skip;
+        private double[] signal;
+        private int length = 0;
+        private double[] mono;
+        private int monoLength = 0;
+
+        WeightedSink(StreamInfo info, long skip, long keep, boolean withMono) {
+            this.bitsPerSample = info.getBitsPerSample();
+            this.channels = info.getChannels();
+            this.filters = WeightingService.AWeighting.getFilters(info.getSampleRate());
+            this.skip = skip;
+            // Si STREAMINFO no informa el total, el arreglo crece por duplicación
+            long total = info.getTotalSamples() * info.getChannels();
+            this.limit = keep >= 0 ? keep : Long.MAX_VALUE;
+            long capacity = Math.min(total + skip, limit + skip);
+            this.signal = new double[(int) Math.max(capacity, info.getMaxBlockSize() * (long) info.getChannels())];
+            if (withMono) this.mono = new double[signal.length / channels];
+        }
+
+        @Override
+        public void processStreamInfo(StreamInfo streamInfo) { }
+
+        @Override
+        public void processPCM(ByteData pcm) {
+            int samples = pcm.getLen() / (bitsPerSample / 8);
+            if (length + samples > signal.length) {
+                signal = Arrays.copyOf(signal, Math.max(signal.length * 2, length + samples));
+            }
+
+            correctionService.bytesToDoubleArray(pcm.getData(), pcm.getLen(), bitsPerSample, signal, length);
+            if (mono != null) {
+                int drop = (int) Math.min(skip, samples);
+                int kept = (int) Math.min(samples - drop, limit - length);
+                if (monoLength + kept / channels > mono.length) {
+                    mono = Arrays.copyOf(mono, Math.max(mono.length * 2, monoLength + kept / channels));
+                }
+                monoLength += correctionService.downmix(signal, length + drop, kept, channels, mono, monoLength);
+            }
+            for (int i = length; i < length + samples; i++) {
+                double x = signal[i];
+                for (WeightingService.BiquadFilter f : filters) {
+                    x = f.process(x);
+                }
+                signal[i] = x;
+            }
+
+            if (skip > 0) {
+                int drop = (int) Math.min(skip, samples);
+                System.arraycopy(signal, length + drop, signal, length, samples - drop);
+                samples -= drop;
+                skip -= drop;
+            }
+            length = (int) Math.min(length + samples, limit);
+        }
+
+        double[] result() {
+            return length == signal.length ? signal : Arrays.copyOf(signal, length);
+        }
+
+        double[] mono() {
+            if (mono == null) return null;
+            return monoLength == mono.length ? mono : Arrays.copyOf(mono, monoLength);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.LiveLevelDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Estado de una sesión de monitoreo en vivo.
+ * Todos los buffers se reservan al crear la sesión: el procesamiento por muestra
+ * (ponderación A + acumuladores de energía) no reserva memoria.
+ */
+public class LiveSession {
+
+    public static final int BLOCK_MS = 125;
+
+    private final String stationId;
+    private final int sampleRate;
+    private final int channels;
+    private final int bytesPerSample;
+    private final int blockSize;
+    private final double scale;
+
+    private final WeightingService.BiquadFilter[] filters;
+
+    // Buffer de lectura reutilizado y bytes pendientes de completar una trama
+    private final byte[] readBuffer;
+    private final byte[] carry;
+    private int carryLen = 0;
+
+    // Historial circular de niveles Fast (125 ms) para nuevos suscriptores
+    private final double[] levelRing;
+    private int ringPos = 0;
+    private int ringCount = 0;
+
+    private double blockSumSq = 0;
+    private int blockCount = 0;
+    private double totalSumSq = 0;
+    private long totalSamples = 0;
+
+    // Niveles calculados dentro del bloqueo, pendientes de entregar a los listeners
+    private final List<LiveLevelDTO> emitted = new ArrayList<>();
+    private final List<Consumer<LiveLevelDTO>> listeners = new CopyOnWriteArrayList<>();
+
+    // Una sola grabadora por sesión: dos flujos intercalados romperían el estado del filtro
+    private volatile boolean producer = false;
+    private volatile long lastActivity = System.currentTimeMillis();
+
+    public LiveSession(String stationId, int sampleRate, int channels, int bitsPerSample, int historySec) {
+        if (bitsPerSample != 16 && bitsPerSample != 24 && bitsPerSample != 32) {
+            throw new IllegalArgumentException("Bits por muestra no soportados: " + bitsPerSample);
+        }
+        if (channels < 1) {
+            throw new IllegalArgumentException("Número de canales inválido: " + channels);
+        }
+        this.stationId = stationId;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.bytesPerSample = bitsPerSample / 8;
+        this.blockSize = (int) (sampleRate * (BLOCK_MS / 1000.0));
+        this.scale = 1.0 / Math.pow(2, bitsPerSample - 1);
+        this.filters = WeightingService.AWeighting.getFilters(sampleRate);
+
+        int frameBytes = bytesPerSample * channels;
+        this.readBuffer = new byte[frameBytes * blockSize];
+        this.carry = new byte[frameBytes];
+        this.levelRing = new double[Math.max(1, historySec * 1000 / BLOCK_MS)];
+    }
+
+    public byte[] getReadBuffer() {
+        return readBuffer;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getBitsPerSample() {
+        return bytesPerSample * 8;
+    }
+
+    public void addListener(Consumer<LiveLevelDTO> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<LiveLevelDTO> listener) {
+        listeners.remove(listener);
+    }
+
+    public void moveListenersTo(LiveSession other) {
+        other.listeners.addAll(listeners);
+        listeners.clear();
+    }
+
+    /**
+     * Quita y devuelve todos los listeners, para avisarles que la sesión se cierra.
+     */
+    public List<Consumer<LiveLevelDTO>> removeListeners() {
+        List<Consumer<LiveLevelDTO>> removed = new ArrayList<>(listeners);
+        listeners.removeAll(removed);
+        return removed;
+    }
+
+    public boolean hasProducer() {
+        return producer;
+    }
+
+    public void attachProducer() {
+        producer = true;
+        lastActivity = System.currentTimeMillis();
+    }
+
+    public void detachProducer() {
+        producer = false;
+        lastActivity = System.currentTimeMillis();
+    }
+
+    /**
+     * Sin grabadora conectada ni datos desde hace al menos {@code timeoutMillis}.
+     */
+    public boolean isIdle(long now, long timeoutMillis) {
+        return !producer && now - lastActivity >= timeoutMillis;
+    }
+
+    /**
+     * Procesa {@code len} bytes PCM little-endian con signo (intercalados por canal).
+     * Los bytes que no completan una trama se guardan para la siguiente llamada.
+     * Los listeners se invocan fuera del bloqueo, con una copia propia de cada nivel,
+     * de modo que un suscriptor lento no retiene el estado de la sesión.
+     */
+    public void process(byte[] data, int len) {
+        List<LiveLevelDTO> ready;
+        lastActivity = System.currentTimeMillis();
+        synchronized (this) {
+            consume(data, len);
+            if (emitted.isEmpty()) return;
+            ready = new ArrayList<>(emitted);
+            emitted.clear();
+        }
+
+        for (LiveLevelDTO level : ready) {
+            for (Consumer<LiveLevelDTO> listener : listeners) {
+                listener.accept(level);
+            }
+        }
+    }
+
+    private void consume(byte[] data, int len) {
+        int frameBytes = bytesPerSample * channels;
+        int pos = 0;
+
+        // Completar la trama que quedó partida en la lectura anterior
+        if (carryLen > 0) {
+            int needed = frameBytes - carryLen;
+            int n = Math.min(needed, len);
+            System.arraycopy(data, 0, carry, carryLen, n);
+            carryLen += n;
+            pos = n;
+            if (carryLen < frameBytes) return;
+            processFrame(carry, 0);
+            carryLen = 0;
+        }
+
+        for (; pos + frameBytes <= len; pos += frameBytes) {
+            processFrame(data, pos);
+        }
+
+        int rest = len - pos;
+        if (rest > 0) {
+            System.arraycopy(data, pos, carry, 0, rest);
+            carryLen = rest;
+        }
+    }
+
+    private void processFrame(byte[] data, int offset) {
+        // Mezcla a mono promediando canales
+        double x = 0;
+        for (int c = 0; c < channels; c++) {
+            x += CorrectionService.decodeSample(data, offset + c * bytesPerSample, bytesPerSample) * scale;
+        }
+        x /= channels;
+
+        for (WeightingService.BiquadFilter f : filters) {
+            x = f.process(x);
+        }
+
+        double sq = x * x;
+        blockSumSq += sq;
+        totalSumSq += sq;
+        totalSamples++;
+
+        if (++blockCount == blockSize) {
+            emitBlock();
+        }
+    }
+
+    private void emitBlock() {
+        // Bloque y Leq con la misma referencia (20 µPa), como en el análisis de archivos
+        double level = SoundLevels.fromMeanSquare(blockSumSq / blockSize);
+        double leq = SoundLevels.fromMeanSquare(totalSumSq / totalSamples);
+
+        levelRing[ringPos] = level;
+        ringPos = (ringPos + 1) % levelRing.length;
+        if (ringCount < levelRing.length) ringCount++;
+
+        blockSumSq = 0;
+        blockCount = 0;
+
+        // Un DTO por bloque (8 por segundo): los listeners pueden conservarlo o enviarlo en diferido
+        LiveLevelDTO dto = new LiveLevelDTO();
+        dto.setStationId(stationId);
+        dto.setSampleRate(sampleRate);
+        dto.setChannels(channels);
+        dto.setTimestamp(System.currentTimeMillis());
+        dto.setElapsedSec(totalSamples / (double) sampleRate);
+        dto.setLevel(level);
+        dto.setLeq(leq);
+        emitted.add(dto);
+    }
+
+    /**
+     * Copia del historial de niveles Fast, del más antiguo al más reciente.
+     */
+    public synchronized double[] getRecentLevels() {
+        double[] out = new double[ringCount];
+        int start = (ringPos - ringCount + levelRing.length) % levelRing.length;
+        for (int i = 0; i < ringCount; i++) {
+            out[i] = levelRing[(start + i) % levelRing.length];
+        }
+        return out;
+    }
+
+    public String getStationId() {
+        return stationId;
+    }
+}
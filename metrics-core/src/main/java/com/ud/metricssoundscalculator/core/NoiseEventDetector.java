@@ -0,0 +1,151 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.NoiseEventDTO;
+
+import java.util.*;
+
+/**
+ * Detector de eventos de ruido en una sola pasada sobre bloques de 125 ms.
+ * <p>
+ * Un evento empieza cuando el nivel del bloque supera el umbral y termina cuando
+ * baja de {@code umbral - histéresis}. Los eventos más cortos que la duración
+ * mínima se descartan. El tiempo sobre umbral se cuenta bloque a bloque, sin
+ * histéresis (bloques con nivel mayor al umbral). Los niveles de los bloques y de
+ * los eventos usan la misma referencia que el Leq ({@link SoundLevels}), de modo
+ * que los umbrales se expresan en dB como el Leq.
+ */
+public class NoiseEventDetector {
+
+    public static final int BLOCK_MS = 125;
+
+    private final double[] thresholds;
+    private final double hysteresisDb;
+    private final double minEventSec;
+    private final double blockSec;
+
+    // Estado por umbral
+    private final boolean[] inEvent;
+    private final long[] startBlock;
+    private final double[] eventEnergy;
+    private final double[] eventLmax;
+    private final long[] blocksAbove;
+
+    private final List<NoiseEventDTO> events = new ArrayList<>();
+    private long block = 0;
+
+    public NoiseEventDetector(List<Double> thresholds, double hysteresisDb, double minEventSec, int fs) {
+        this.thresholds = thresholds.stream().mapToDouble(Double::doubleValue).sorted().distinct().toArray();
+        this.hysteresisDb = Math.max(0, hysteresisDb);
+        this.minEventSec = Math.max(0, minEventSec);
+        this.blockSec = blockSize(fs) / (double) fs;
+
+        int n = this.thresholds.length;
+        inEvent = new boolean[n];
+        startBlock = new long[n];
+        eventEnergy = new double[n];
+        eventLmax = new double[n];
+        blocksAbove = new long[n];
+    }
+
+    public static int blockSize(int fs) {
+        return (int) (BLOCK_MS / 1000.0 * fs);
+    }
+
+    /**
+     * Procesa la señal completa: cada bloque de 125 ms se calcula una sola vez
+     * y se evalúa contra todos los umbrales.
+     */
+    public NoiseEventDetector process(double[] signal, int fs) {
+        int frameSize = blockSize(fs);
+        int frames = signal.length / frameSize;
+        SignalKernels kernels = SignalKernels.get();
+        for (int f = 0; f < frames; f++) {
+            addBlock(kernels.sumOfSquares(signal, f * frameSize, (f + 1) * frameSize) / frameSize);
+        }
+        return finish();
+    }
+
+    /**
+     * Añade un bloque a partir de su energía media (media de cuadrados).
+     */
+    public void addBlock(double meanSq) {
+        double levelDb = SoundLevels.fromMeanSquare(meanSq);
+
+        for (int t = 0; t < thresholds.length; t++) {
+            double th = thresholds[t];
+            if (levelDb > th) blocksAbove[t]++;
+
+            if (!inEvent[t]) {
+                if (levelDb > th) {
+                    inEvent[t] = true;
+                    startBlock[t] = block;
+                    eventEnergy[t] = meanSq;
+                    eventLmax[t] = levelDb;
+                }
+            } else if (levelDb < th - hysteresisDb) {
+                closeEvent(t, block);
+            } else {
+                eventEnergy[t] += meanSq;
+                if (levelDb > eventLmax[t]) eventLmax[t] = levelDb;
+            }
+        }
+        block++;
+    }
+
+    /**
+     * Cierra los eventos que sigan abiertos al final de la señal.
+     */
+    public NoiseEventDetector finish() {
+        for (int t = 0; t < thresholds.length; t++) {
+            if (inEvent[t]) closeEvent(t, block);
+        }
+        events.sort(Comparator.comparingDouble(NoiseEventDTO::getStart)
+                .thenComparingDouble(NoiseEventDTO::getThreshold));
+        return this;
+    }
+
+    private void closeEvent(int t, long endBlock) {
+        inEvent[t] = false;
+        long blocks = endBlock - startBlock[t];
+        double duration = blocks * blockSec;
+        if (duration < minEventSec) return;
+
+        double leq = SoundLevels.fromMeanSquare(eventEnergy[t] / blocks);
+
+        NoiseEventDTO event = new NoiseEventDTO();
+        event.setThreshold(thresholds[t]);
+        event.setStart(startBlock[t] * blockSec);
+        event.setEnd(endBlock * blockSec);
+        event.setDuration(duration);
+        event.setLmax(eventLmax[t]);
+        event.setLeq(leq);
+        event.setSel(leq + 10 * Math.log10(duration));
+        events.add(event);
+    }
+
+    public List<NoiseEventDTO> getEvents() {
+        return events;
+    }
+
+    /**
+     * Tiempo total sobre cada umbral, en segundos.
+     */
+    public Map<String, Double> getDurationAbove() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int t = 0; t < thresholds.length; t++) {
+            result.put(thresholdKey(thresholds[t]), blocksAbove[t] * blockSec);
+        }
+        return result;
+    }
+
+    public double getDurationAbove(double threshold) {
+        Double value = getDurationAbove().get(thresholdKey(threshold));
+        return value != null ? value : Double.NaN;
+    }
+
+    public static String thresholdKey(double threshold) {
+        return threshold == Math.rint(threshold)
+                ? String.format(Locale.ROOT, "%.0f dB", threshold)
+                : String.format(Locale.ROOT, "%.1f dB", threshold);
+    }
+}
@@ -0,0 +1,362 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+import com.ud.metricssoundscalculator.dto.NoiseEventDTO;
+import com.ud.metricssoundscalculator.dto.TimeWeightingDTO;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Formato binario compacto para archivar resultados de análisis.
+ * Las series se escriben como bloques contiguos (columnas) y los eventos columna
+ * por columna, todo comprimido con Deflate. El espectrograma proviene de la FFT en float,
+ * por lo que guardarlo en float no pierde precisión; el espectro promedio está normalizado
+ * y se guarda en double.
+ */
+public final class ResultArchiveCodec {
+
+    private static final int MAGIC = 0x4D534352; // "MSCR"
+    private static final int VERSION = 1;
+
+    private ResultArchiveCodec() {
+    }
+
+    public static void write(AcousticAnalysisDTO dto, OutputStream target) throws IOException {
+        DataOutputStream header = new DataOutputStream(target);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        header.flush();
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(target, deflater, 1 << 16);
+            BlockWriter out = new BlockWriter(new DataOutputStream(new BufferedOutputStream(deflated, 1 << 16)));
+            writeAnalysis(dto, out);
+            out.data.flush();
+            deflated.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static AcousticAnalysisDTO read(InputStream source) throws IOException {
+        DataInputStream header = new DataInputStream(source);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("No es un archivo de resultados");
+        }
+        int version = header.readShort();
+        if (version != VERSION) {
+            throw new IOException("Versión de archivo de resultados no soportada: " + version);
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            InputStream inflated = new InflaterInputStream(source, inflater, 1 << 16);
+            BlockReader in = new BlockReader(new DataInputStream(new BufferedInputStream(inflated, 1 << 16)));
+            return readAnalysis(in);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeAnalysis(AcousticAnalysisDTO dto, BlockWriter out) throws IOException {
+        DataOutputStream data = out.data;
+        data.writeInt(dto.getSampleRate());
+        data.writeInt(dto.getChannels());
+        out.string(dto.getWeighting());
+
+        data.writeDouble(dto.getLeq());
+        out.doubleMap(dto.getLn());
+        data.writeDouble(dto.getLmax());
+        data.writeDouble(dto.getLmin());
+        data.writeDouble(dto.getDeltaL());
+
+        out.doubleMap(dto.getDurationAbove());
+        out.nullableDouble(dto.getDurationAbove65());
+        out.nullableDouble(dto.getDurationAbove70());
+        writeEvents(dto.getEvents(), out);
+        writeTimeWeighting(dto.getTimeWeighting(), out);
+
+        out.doubles(dto.getLevels());
+        out.doubles(dto.getLeqSeries());
+
+        out.doubles(dto.getSpectrumPreview());
+        out.doubleMap(dto.getOctaveBands());
+        double[][] spectrogram = dto.getSpectrogram();
+        data.writeInt(spectrogram == null ? -1 : spectrogram.length);
+        if (spectrogram != null) {
+            for (double[] frame : spectrogram) out.floats(frame);
+        }
+
+        data.writeDouble(dto.getDbfs());
+        data.writeDouble(dto.getRmsEnergy());
+        data.writeDouble(dto.getDominantFrequency());
+        data.writeDouble(dto.getSpectralCentroid());
+        data.writeDouble(dto.getSpectralRolloff());
+        data.writeDouble(dto.getZeroCrossingRate());
+
+        Map<String, Integer> histogram = dto.getLevelHistogram();
+        data.writeInt(histogram == null ? -1 : histogram.size());
+        if (histogram != null) {
+            for (Map.Entry<String, Integer> e : histogram.entrySet()) {
+                data.writeUTF(e.getKey());
+                data.writeInt(e.getValue());
+            }
+        }
+
+        out.nullableDouble(dto.getIacc());
+        List<Double> tiacc = dto.getTiacc();
+        out.doubles(tiacc == null ? null : tiacc.stream().mapToDouble(Double::doubleValue).toArray());
+        out.nullableDouble(dto.getWiacc());
+    }
+
+    private static AcousticAnalysisDTO readAnalysis(BlockReader in) throws IOException {
+        DataInputStream data = in.data;
+        AcousticAnalysisDTO dto = new AcousticAnalysisDTO();
+        dto.setSampleRate(data.readInt());
+        dto.setChannels(data.readInt());
+        dto.setWeighting(in.string());
+
+        dto.setLeq(data.readDouble());
+        dto.setLn(in.doubleMap());
+        dto.setLmax(data.readDouble());
+        dto.setLmin(data.readDouble());
+        dto.setDeltaL(data.readDouble());
+
+        dto.setDurationAbove(in.doubleMap());
+        dto.setDurationAbove65(in.nullableDouble());
+        dto.setDurationAbove70(in.nullableDouble());
+        dto.setEvents(readEvents(in));
+        dto.setTimeWeighting(readTimeWeighting(in));
+
+        dto.setLevels(in.doubles());
+        dto.setLeqSeries(in.doubles());
+
+        // Versión 1: espectro de la FFT completa, en float
+        dto.setSpectrumPreview(in.doubles());
+        dto.setOctaveBands(in.doubleMap());
+        int frames = data.readInt();
+        if (frames >= 0) {
+            double[][] spectrogram = new double[frames][];
+            for (int f = 0; f < frames; f++) spectrogram[f] = in.floats();
+            dto.setSpectrogram(spectrogram);
+        }
+
+        dto.setDbfs(data.readDouble());
+        dto.setRmsEnergy(data.readDouble());
+        dto.setDominantFrequency(data.readDouble());
+        dto.setSpectralCentroid(data.readDouble());
+        dto.setSpectralRolloff(data.readDouble());
+        dto.setZeroCrossingRate(data.readDouble());
+
+        int bins = data.readInt();
+        if (bins >= 0) {
+            Map<String, Integer> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < bins; i++) histogram.put(data.readUTF(), data.readInt());
+            dto.setLevelHistogram(histogram);
+        }
+
+        dto.setIacc(in.nullableDouble());
+        double[] tiacc = in.doubles();
+        dto.setTiacc(tiacc == null ? null : Arrays.stream(tiacc).boxed().toList());
+        dto.setWiacc(in.nullableDouble());
+        return dto;
+    }
+
+    // Eventos en columnas: umbral, inicio, fin, duración, Lmax, Leq, SEL
+    private static void writeEvents(List<NoiseEventDTO> events, BlockWriter out) throws IOException {
+        if (events == null) {
+            out.data.writeInt(-1);
+            return;
+        }
+        int n = events.size();
+        double[][] columns = new double[7][n];
+        for (int i = 0; i < n; i++) {
+            NoiseEventDTO e = events.get(i);
+            columns[0][i] = e.getThreshold();
+            columns[1][i] = e.getStart();
+            columns[2][i] = e.getEnd();
+            columns[3][i] = e.getDuration();
+            columns[4][i] = e.getLmax();
+            columns[5][i] = e.getLeq();
+            columns[6][i] = e.getSel();
+        }
+        out.data.writeInt(n);
+        for (double[] column : columns) out.doubles(column);
+    }
+
+    private static List<NoiseEventDTO> readEvents(BlockReader in) throws IOException {
+        int n = in.data.readInt();
+        if (n < 0) return null;
+        double[][] columns = new double[7][];
+        for (int c = 0; c < columns.length; c++) columns[c] = in.doubles();
+
+        List<NoiseEventDTO> events = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            NoiseEventDTO e = new NoiseEventDTO();
+            e.setThreshold(columns[0][i]);
+            e.setStart(columns[1][i]);
+            e.setEnd(columns[2][i]);
+            e.setDuration(columns[3][i]);
+            e.setLmax(columns[4][i]);
+            e.setLeq(columns[5][i]);
+            e.setSel(columns[6][i]);
+            events.add(e);
+        }
+        return events;
+    }
+
+    private static void writeTimeWeighting(TimeWeightingDTO tw, BlockWriter out) throws IOException {
+        DataOutputStream data = out.data;
+        data.writeBoolean(tw != null);
+        if (tw == null) return;
+        data.writeDouble(tw.getLafMax());
+        data.writeDouble(tw.getLasMax());
+        data.writeDouble(tw.getLaiMax());
+        data.writeDouble(tw.getLafMin());
+        data.writeDouble(tw.getLasMin());
+        data.writeDouble(tw.getLaiMin());
+        out.doubles(tw.getLafSeries());
+        out.doubles(tw.getLasSeries());
+        out.doubles(tw.getLaiSeries());
+        data.writeInt(tw.getSampleRate());
+        data.writeInt(tw.getChannels());
+    }
+
+    private static TimeWeightingDTO readTimeWeighting(BlockReader in) throws IOException {
+        DataInputStream data = in.data;
+        if (!data.readBoolean()) return null;
+        TimeWeightingDTO tw = new TimeWeightingDTO();
+        tw.setLafMax(data.readDouble());
+        tw.setLasMax(data.readDouble());
+        tw.setLaiMax(data.readDouble());
+        tw.setLafMin(data.readDouble());
+        tw.setLasMin(data.readDouble());
+        tw.setLaiMin(data.readDouble());
+        tw.setLafSeries(in.doubles());
+        tw.setLasSeries(in.doubles());
+        tw.setLaiSeries(in.doubles());
+        tw.setSampleRate(data.readInt());
+        tw.setChannels(data.readInt());
+        return tw;
+    }
+
+    /**
+     * Escritura de arreglos en bloque a través de un buffer reutilizado.
+     * Un largo -1 representa null.
+     */
+    private static final class BlockWriter {
+        private final DataOutputStream data;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.BIG_ENDIAN);
+
+        BlockWriter(DataOutputStream data) {
+            this.data = data;
+        }
+
+        void doubles(double[] values) throws IOException {
+            data.writeInt(values == null ? -1 : values.length);
+            if (values == null) return;
+            int i = 0;
+            while (i < values.length) {
+                int n = Math.min(values.length - i, buffer.capacity() / Double.BYTES);
+                buffer.clear();
+                buffer.asDoubleBuffer().put(values, i, n);
+                data.write(buffer.array(), 0, n * Double.BYTES);
+                i += n;
+            }
+        }
+
+        void floats(double[] values) throws IOException {
+            data.writeInt(values == null ? -1 : values.length);
+            if (values == null) return;
+            int i = 0;
+            while (i < values.length) {
+                int n = Math.min(values.length - i, buffer.capacity() / Float.BYTES);
+                buffer.clear();
+                for (int k = 0; k < n; k++) buffer.putFloat((float) values[i + k]);
+                data.write(buffer.array(), 0, n * Float.BYTES);
+                i += n;
+            }
+        }
+
+        void doubleMap(Map<String, Double> map) throws IOException {
+            data.writeInt(map == null ? -1 : map.size());
+            if (map == null) return;
+            for (Map.Entry<String, Double> e : map.entrySet()) {
+                data.writeUTF(e.getKey());
+                data.writeDouble(e.getValue());
+            }
+        }
+
+        void nullableDouble(Double value) throws IOException {
+            data.writeBoolean(value != null);
+            if (value != null) data.writeDouble(value);
+        }
+
+        void string(String value) throws IOException {
+            data.writeBoolean(value != null);
+            if (value != null) data.writeUTF(value);
+        }
+    }
+
+    private static final class BlockReader {
+        private final DataInputStream data;
+        private final byte[] buffer = new byte[1 << 16];
+
+        BlockReader(DataInputStream data) {
+            this.data = data;
+        }
+
+        double[] doubles() throws IOException {
+            int length = data.readInt();
+            if (length < 0) return null;
+            double[] values = new double[length];
+            int i = 0;
+            while (i < length) {
+                int n = Math.min(length - i, buffer.length / Double.BYTES);
+                data.readFully(buffer, 0, n * Double.BYTES);
+                ByteBuffer.wrap(buffer, 0, n * Double.BYTES).asDoubleBuffer().get(values, i, n);
+                i += n;
+            }
+            return values;
+        }
+
+        double[] floats() throws IOException {
+            int length = data.readInt();
+            if (length < 0) return null;
+            double[] values = new double[length];
+            int i = 0;
+            while (i < length) {
+                int n = Math.min(length - i, buffer.length / Float.BYTES);
+                data.readFully(buffer, 0, n * Float.BYTES);
+                ByteBuffer block = ByteBuffer.wrap(buffer, 0, n * Float.BYTES);
+                for (int k = 0; k < n; k++) values[i + k] = block.getFloat();
+                i += n;
+            }
+            return values;
+        }
+
+        Map<String, Double> doubleMap() throws IOException {
+            int size = data.readInt();
+            if (size < 0) return null;
+            Map<String, Double> map = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) map.put(data.readUTF(), data.readDouble());
+            return map;
+        }
+
+        Double nullableDouble() throws IOException {
+            return data.readBoolean() ? data.readDouble() : null;
+        }
+
+        String string() throws IOException {
+            return data.readBoolean() ? data.readUTF() : null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ud.metricssoundscalculator.core;
+
+/**
+ * Implementación escalar de referencia de {@link SignalKernels}.
+ */
+public class ScalarKernels implements SignalKernels {
+
+    @Override
+    public double sumOfSquares(double[] a, int from, int to) {
+        double sumSq = 0;
+        for (int i = from; i < to; i++) sumSq += a[i] * a[i];
+        return sumSq;
+    }
+
+    @Override
+    public double maxAbs(double[] a, int from, int to) {
+        double max = 0;
+        for (int i = from; i < to; i++) max = Math.max(max, Math.abs(a[i]));
+        return max;
+    }
+
+    @Override
+    public double minAbs(double[] a, int from, int to) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) min = Math.min(min, Math.abs(a[i]));
+        return min;
+    }
+
+    @Override
+    public void toDouble(float[] src, double[] dst, int n) {
+        for (int i = 0; i < n; i++) dst[i] = src[i];
+    }
+
+    @Override
+    public void toFloat(double[] src, float[] dst, int n) {
+        for (int i = 0; i < n; i++) dst[i] = (float) src[i];
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
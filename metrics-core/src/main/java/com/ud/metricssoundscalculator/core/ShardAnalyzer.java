@@ -0,0 +1,112 @@
+package com.ud.metricssoundscalculator.core;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import java.io.File;
+
+/**
+ * Analiza un fragmento de un WAV y devuelve su {@link AnalysisPartial}.
+ * <p>
+ * El filtro A y la ponderación temporal dependen de toda la historia de la señal. Sin
+ * estado inicial, el fragmento arranca con un pre-roll que los asienta; el estado que
+ * resulta se reporta junto con el del final para que el coordinador compruebe que
+ * coincide bit a bit con el del fragmento anterior (si no, lo repite con ese estado).
+ * Los bordes deben ser múltiplos de la ventana (salvo el final del archivo).
+ */
+public class ShardAnalyzer {
+
+    // Pre-roll por defecto: 60 constantes de tiempo de la caída Impulse (la más lenta)
+    public static final double WARM_UP_SEC = 90;
+
+    private final CorrectionService correctionService = new CorrectionService();
+    private final double warmUpSec;
+
+    public ShardAnalyzer() {
+        this(WARM_UP_SEC);
+    }
+
+    public ShardAnalyzer(double warmUpSec) {
+        this.warmUpSec = warmUpSec;
+    }
+
+    public AnalysisPartial analyze(ShardTask task) throws Exception {
+        File file = task.getFile();
+        WavHeader header = WavHeader.read(file);
+        if (header == null) {
+            throw new IllegalArgumentException("El análisis por fragmentos requiere un WAV: " + file.getName());
+        }
+        AudioFormat format = AudioSystem.getAudioFileFormat(file).getFormat();
+        int fs = (int) format.getSampleRate();
+        int channels = format.getChannels();
+        int frameSize = format.getFrameSize();
+        long totalFrames = header.getDataLength() / frameSize;
+
+        long first = Math.min(task.getFirstFrame(), totalFrames);
+        long end = Math.min(task.getEndFrame(), totalFrames);
+        double[] initialState = task.getInitialState();
+        // Los bordes deben caer en inicio de ventana para que ningún segundo ni ventana
+        // quede repartido entre dos fragmentos
+        long window = (long) fs * task.getWindowSec();
+        if (first % window != 0 || (end % window != 0 && end != totalFrames)) {
+            throw new IllegalArgumentException("Los bordes del fragmento deben ser múltiplos de la ventana");
+        }
+        long from = initialState != null ? first : Math.max(0, first - (long) (warmUpSec * fs));
+        // Los bloques de 125 ms no siempre dividen la ventana (44.1 kHz): tramas extra
+        // para completar el bloque que empieza antes del final
+        long to = Math.min(totalFrames, end + (NoiseEventDetector.blockSize(fs) + channels - 1) / channels);
+
+        double[] signal = correctionService.bytesToDoubleArray(header.readFrames(file, from, to, frameSize), format);
+        // Los descriptores espectrales usan la señal sin ponderar: se mezcla antes de filtrar
+        double[] mono = correctionService.downmix(signal, 0, channels);
+        WeightingService.BiquadFilter[] filters = WeightingService.AWeighting.getFilters(fs);
+        TimeWeighting timeWeighting = new TimeWeighting(fs, channels, (end - first) * channels);
+        if (initialState != null) setState(initialState, filters, timeWeighting);
+
+        int warmUp = (int) ((first - from) * channels);
+        int owned = warmUp + (int) ((end - first) * channels);
+        filter(signal, 0, warmUp, filters);
+        timeWeighting.warmUp(signal, 0, warmUp);
+        double[] startState = getState(filters, timeWeighting);
+
+        filter(signal, warmUp, owned, filters);
+        timeWeighting.resumeAt(first).process(signal, warmUp, owned);
+        double[] endState = getState(filters, timeWeighting);
+        filter(signal, owned, signal.length, filters);
+
+        AnalysisPartial partial = AnalysisPartial.compute(signal, mono, from * channels, first * channels,
+                end * channels, totalFrames * channels, fs, channels, task.getWindowSec(), timeWeighting, false);
+        partial.setBoundaryStates(startState, endState);
+        return partial;
+    }
+
+    // Ponderación A en el sitio, continuando el estado de los filtros
+    private static void filter(double[] signal, int from, int to, WeightingService.BiquadFilter[] filters) {
+        for (int i = from; i < to; i++) {
+            double x = signal[i];
+            for (WeightingService.BiquadFilter f : filters) {
+                x = f.process(x);
+            }
+            signal[i] = x;
+        }
+    }
+
+    // Estado = {z1, z2} de cada biquad seguido de {Fast, Slow, Impulse}
+    private static double[] getState(WeightingService.BiquadFilter[] filters, TimeWeighting timeWeighting) {
+        double[] detectors = timeWeighting.getState();
+        double[] state = new double[2 * filters.length + detectors.length];
+        for (int i = 0; i < filters.length; i++) {
+            state[2 * i] = filters[i].getZ1();
+            state[2 * i + 1] = filters[i].getZ2();
+        }
+        System.arraycopy(detectors, 0, state, 2 * filters.length, detectors.length);
+        return state;
+    }
+
+    private static void setState(double[] state, WeightingService.BiquadFilter[] filters, TimeWeighting timeWeighting) {
+        for (int i = 0; i < filters.length; i++) {
+            filters[i].setState(state[2 * i], state[2 * i + 1]);
+        }
+        timeWeighting.setState(new double[]{
+                state[2 * filters.length], state[2 * filters.length + 1], state[2 * filters.length + 2]});
+    }
+}
@@ -0,0 +1,200 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Análisis de grabaciones largas repartido en fragmentos de tiempo.
+ * <p>
+ * Divide el WAV en fragmentos alineados a la ventana, los analiza en paralelo con un
+ * {@link ShardRunner} (en este proceso o en procesos worker) y combina los
+ * {@link AnalysisPartial} en orden. Antes de unir dos fragmentos comprueba que el estado
+ * final de filtros y detectores del primero coincide bit a bit con el estado con que
+ * arrancó el segundo; si no, repite el segundo partiendo de ese estado. Así los niveles,
+ * series y eventos son idénticos a los de {@link AcousticService#getAnalysis}; espectro y
+ * descriptores espectrales coinciden salvo redondeo.
+ * <p>
+ * Los fragmentos no transportan el espectro de cada ventana (en una grabación de horas
+ * serían gigas), así que el resultado no incluye el espectrograma: para eso está
+ * {@link AcousticService#getSpectrogram}.
+ */
+public class ShardCoordinator {
+
+    /**
+     * Ejecuta el análisis de un fragmento.
+     */
+    public interface ShardRunner {
+        AnalysisPartial run(ShardTask task) throws Exception;
+    }
+
+    /**
+     * Analiza los fragmentos en hilos del propio proceso.
+     */
+    public static class InProcessRunner implements ShardRunner {
+
+        private final ShardAnalyzer analyzer;
+
+        public InProcessRunner() {
+            this(new ShardAnalyzer());
+        }
+
+        public InProcessRunner(ShardAnalyzer analyzer) {
+            this.analyzer = analyzer;
+        }
+
+        @Override
+        public AnalysisPartial run(ShardTask task) throws Exception {
+            return analyzer.analyze(task);
+        }
+    }
+
+    /**
+     * Lanza un proceso {@link ShardWorker} por fragmento con el mismo JDK y classpath.
+     */
+    public static class LocalProcessRunner implements ShardRunner {
+
+        @Override
+        public AnalysisPartial run(ShardTask task) throws Exception {
+            // La salida va a un archivo y no a un pipe: así se espera con waitFor(), que sí
+            // responde a la interrupción cuando el coordinador cancela el análisis
+            File output = File.createTempFile("shard_", ".bin");
+            Process process = null;
+            try {
+                process = new ProcessBuilder(command())
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .redirectOutput(output)
+                        .start();
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()))) {
+                    task.write(out);
+                }
+                int exit = process.waitFor();
+                if (exit != 0) {
+                    throw new IOException("El worker terminó con código " + exit + " en el fragmento "
+                            + task.getFirstFrame() + "-" + task.getEndFrame());
+                }
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(output), 1 << 16))) {
+                    return AnalysisPartial.read(in);
+                }
+            } finally {
+                // Nunca deja workers huérfanos (fallo, cancelación o interrupción)
+                if (process != null) process.destroyForcibly();
+                output.delete();
+            }
+        }
+
+        // Los núcleos numéricos del worker deben ser los mismos que los del coordinador
+        private static List<String> command() {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                command.add("--add-modules");
+                command.add("jdk.incubator.vector");
+            }
+            if (Boolean.getBoolean("kernels.scalar")) {
+                command.add("-Dkernels.scalar=true");
+            }
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(ShardWorker.class.getName());
+            return command;
+        }
+    }
+
+    private final ShardRunner runner;
+    private final int shards;
+    private final int parallelism;
+    // Fragmentos en ejecución a la vez, compartido por todos los análisis del coordinador
+    private final Semaphore slots;
+    private final AcousticService acousticService = new AcousticService();
+    private final FlacService flacService = new FlacService();
+
+    public ShardCoordinator(ShardRunner runner, int shards) {
+        this(runner, shards, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param shards      número de fragmentos en que se divide cada archivo
+     * @param parallelism máximo de fragmentos analizándose a la vez (workers vivos)
+     */
+    public ShardCoordinator(ShardRunner runner, int shards, int parallelism) {
+        this.runner = runner;
+        this.shards = Math.max(1, shards);
+        this.parallelism = Math.max(1, parallelism);
+        this.slots = new Semaphore(this.parallelism, true);
+    }
+
+    public AcousticAnalysisDTO getAnalysis(File wavFile, int windowSec, List<Double> thresholds,
+                                           double hysteresisDb, double minEventSec) throws Exception {
+        // FLAC y contenedores sin cabecera RIFF no permiten leer un tramo con seek
+        WavHeader header = flacService.isFlac(wavFile) ? null : WavHeader.read(wavFile);
+        if (header == null) {
+            return acousticService.getAnalysis(wavFile, windowSec, thresholds, hysteresisDb, minEventSec, AudioRange.FULL);
+        }
+
+        AudioFormat format = AudioSystem.getAudioFileFormat(wavFile).getFormat();
+        long totalFrames = header.getDataLength() / format.getFrameSize();
+        long window = (long) format.getSampleRate() * windowSec;
+        List<ShardTask> tasks = plan(wavFile, totalFrames, window, windowSec);
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(tasks.size(), parallelism));
+        try {
+            List<Future<AnalysisPartial>> futures = new ArrayList<>();
+            for (ShardTask task : tasks) {
+                futures.add(pool.submit(() -> run(task)));
+            }
+
+            AnalysisPartial merged = get(futures.get(0));
+            for (int i = 1; i < tasks.size(); i++) {
+                AnalysisPartial next = get(futures.get(i));
+                if (!Arrays.equals(merged.getEndState(), next.getStartState())) {
+                    // El pre-roll no bastó para asentar el estado: se repite con el exacto
+                    next = run(tasks.get(i).withInitialState(merged.getEndState()));
+                }
+                merged.append(next);
+            }
+            return acousticService.buildAnalysis(merged, thresholds, hysteresisDb, minEventSec, 0.0);
+        } finally {
+            // Interrumpe los fragmentos pendientes; cada runner libera su worker
+            pool.shutdownNow();
+        }
+    }
+
+    private AnalysisPartial run(ShardTask task) throws Exception {
+        slots.acquire();
+        try {
+            return runner.run(task);
+        } finally {
+            slots.release();
+        }
+    }
+
+    // Bordes en múltiplos de la ventana, repartiendo las ventanas lo más parejo posible
+    private List<ShardTask> plan(File wavFile, long totalFrames, long window, int windowSec) {
+        long windows = Math.max(1, totalFrames / window);
+        int count = (int) Math.min(shards, windows);
+
+        List<ShardTask> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long first = windows * i / count * window;
+            long end = i == count - 1 ? totalFrames : windows * (i + 1) / count * window;
+            tasks.add(new ShardTask(wavFile, first, end, windowSec, null));
+        }
+        return tasks;
+    }
+
+    private static AnalysisPartial get(Future<AnalysisPartial> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+}
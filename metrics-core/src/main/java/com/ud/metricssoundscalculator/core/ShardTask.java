@@ -0,0 +1,65 @@
+package com.ud.metricssoundscalculator.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Fragmento de una grabación a analizar: tramas [firstFrame, endFrame) del archivo.
+ * Si se conoce el estado exacto de filtros y detectores al inicio del fragmento
+ * ({@code initialState}), el worker lo usa en lugar del pre-roll.
+ */
+public class ShardTask {
+
+    private final File file;
+    private final long firstFrame;
+    private final long endFrame;
+    private final int windowSec;
+    private final double[] initialState;
+
+    public ShardTask(File file, long firstFrame, long endFrame, int windowSec, double[] initialState) {
+        this.file = file;
+        this.firstFrame = firstFrame;
+        this.endFrame = endFrame;
+        this.windowSec = windowSec;
+        this.initialState = initialState;
+    }
+
+    public ShardTask withInitialState(double[] state) {
+        return new ShardTask(file, firstFrame, endFrame, windowSec, state);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getFirstFrame() {
+        return firstFrame;
+    }
+
+    public long getEndFrame() {
+        return endFrame;
+    }
+
+    public int getWindowSec() {
+        return windowSec;
+    }
+
+    public double[] getInitialState() {
+        return initialState;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeUTF(file.getAbsolutePath());
+        out.writeLong(firstFrame);
+        out.writeLong(endFrame);
+        out.writeInt(windowSec);
+        AnalysisPartial.writeDoubles(out, initialState);
+    }
+
+    public static ShardTask read(DataInputStream in) throws IOException {
+        return new ShardTask(new File(in.readUTF()), in.readLong(), in.readLong(), in.readInt(),
+                AnalysisPartial.readDoubles(in));
+    }
+}
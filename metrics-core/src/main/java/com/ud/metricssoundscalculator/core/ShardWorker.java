@@ -0,0 +1,24 @@
+package com.ud.metricssoundscalculator.core;
+
+import java.io.*;
+
+/**
+ * Proceso worker: lee un {@link ShardTask} por la entrada estándar y escribe el
+ * {@link AnalysisPartial} resultante por la salida estándar, ambos en binario.
+ */
+public class ShardWorker {
+
+    public static void main(String[] args) {
+        try {
+            ShardTask task = ShardTask.read(new DataInputStream(new BufferedInputStream(System.in)));
+            AnalysisPartial partial = new ShardAnalyzer().analyze(task);
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(System.out, 1 << 16));
+            partial.write(out);
+            out.flush();
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
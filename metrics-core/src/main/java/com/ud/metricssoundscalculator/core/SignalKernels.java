@@ -0,0 +1,76 @@
+package com.ud.metricssoundscalculator.core;
+
+import java.util.logging.Logger;
+
+/**
+ * Núcleos numéricos de los bucles internos (energía, picos, niveles por bloque,
+ * conversión float/double). Al arrancar se elige la implementación vectorial
+ * (jdk.incubator.vector) si el módulo está disponible; si no, la escalar.
+ */
+public interface SignalKernels {
+
+    /** Suma de cuadrados de a[from, to). */
+    double sumOfSquares(double[] a, int from, int to);
+
+    /** Máximo de |a[i]| en [from, to). */
+    double maxAbs(double[] a, int from, int to);
+
+    /** Mínimo de |a[i]| en [from, to). */
+    double minAbs(double[] a, int from, int to);
+
+    /**
+     * Nivel por bloques consecutivos con la referencia del Leq
+     * (ver {@link SoundLevels#fromMeanSquare}).
+     * Se calculan {@code out.length} bloques de {@code blockSize} muestras.
+     */
+    default void blockLevelsDb(double[] signal, int blockSize, double[] out) {
+        for (int b = 0; b < out.length; b++) {
+            int from = b * blockSize;
+            double meanSq = sumOfSquares(signal, from, from + blockSize) / blockSize;
+            out[b] = SoundLevels.fromMeanSquare(meanSq);
+        }
+    }
+
+    void toDouble(float[] src, double[] dst, int n);
+
+    void toFloat(double[] src, float[] dst, int n);
+
+    String name();
+
+    /**
+     * Implementación elegida para esta JVM.
+     */
+    static SignalKernels get() {
+        return SignalKernelsHolder.INSTANCE;
+    }
+}
+
+/**
+ * Selección perezosa de la implementación, fuera de la API pública de {@link SignalKernels}.
+ */
+final class SignalKernelsHolder {
+
+    private static final Logger LOG = Logger.getLogger(SignalKernels.class.getName());
+
+    static final SignalKernels INSTANCE = select();
+
+    private SignalKernelsHolder() { }
+
+    private static SignalKernels select() {
+        if (Boolean.getBoolean("kernels.scalar")) {
+            LOG.info("Núcleos numéricos: scalar (forzado con -Dkernels.scalar)");
+            return new ScalarKernels();
+        }
+        try {
+            // Carga reflexiva: si falta --add-modules jdk.incubator.vector la clase no enlaza
+            Class.forName("jdk.incubator.vector.DoubleVector");
+            SignalKernels kernels = (SignalKernels) Class.forName(SignalKernels.class.getPackageName() + ".VectorKernels")
+                    .getDeclaredConstructor().newInstance();
+            LOG.info("Núcleos numéricos: " + kernels.name());
+            return kernels;
+        } catch (Exception | LinkageError e) {
+            LOG.info("Núcleos numéricos: scalar (Vector API no disponible: " + e + ")");
+            return new ScalarKernels();
+        }
+    }
+}
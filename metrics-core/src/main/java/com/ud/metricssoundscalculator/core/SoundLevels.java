@@ -0,0 +1,21 @@
+package com.ud.metricssoundscalculator.core;
+
+/**
+ * Conversión de energía a nivel en dB con la referencia de presión de 20 µPa.
+ * La usan el Leq, los niveles por bloque, los eventos y la ponderación temporal,
+ * para que todos los niveles sean comparables entre sí.
+ */
+public final class SoundLevels {
+
+    public static final double REFERENCE_PA = 20e-6;
+
+    private SoundLevels() {
+    }
+
+    /**
+     * Nivel de una media de cuadrados: 20·log10(rms / 20 µPa + 1e-9).
+     */
+    public static double fromMeanSquare(double meanSquare) {
+        return 20 * Math.log10(Math.sqrt(meanSquare) / REFERENCE_PA + 1e-9);
+    }
+}
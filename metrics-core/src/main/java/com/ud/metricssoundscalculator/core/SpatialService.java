@@ -1,10 +1,9 @@
-package com.ud.metricssoundscalculator.service;
+package com.ud.metricssoundscalculator.core;
 
 import be.tarsos.dsp.AudioDispatcher;
 import be.tarsos.dsp.AudioEvent;
 import be.tarsos.dsp.AudioProcessor;
 import be.tarsos.dsp.io.jvm.AudioDispatcherFactory;
-import org.springframework.stereotype.Service;
 
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
@@ -12,7 +11,6 @@ import javax.sound.sampled.AudioSystem;
 import java.io.File;
 import java.util.*;
 
-@Service
 public class SpatialService {
 
     public Map<String, Object> computeSpatialParams(File wavFile) throws Exception {
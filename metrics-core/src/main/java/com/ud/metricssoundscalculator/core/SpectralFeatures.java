@@ -0,0 +1,194 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Descriptores espectrales de process_audio.py (centroide, rolloff, ZCR,
+ * frecuencia dominante y dBFS) acumulados trama a trama. Como en el script, se
+ * calculan sobre la señal sin ponderar mezclada a mono, no sobre la señal
+ * ponderada A del espectrograma.
+ * <p>
+ * Solo guarda sumas, así que los acumuladores de fragmentos consecutivos se combinan
+ * con {@link #append} sin conservar los espectros de cada trama.
+ */
+public class SpectralFeatures {
+
+    // Fracción de energía acumulada para el rolloff (valor por defecto de librosa)
+    public static final double ROLL_PERCENT = 0.85;
+
+    // Umbral de silencio de process_audio.py
+    private static final double SILENCE_RMS = 1e-10;
+
+    private final int fs;
+
+    private double centroidSum = 0;
+    private double rolloffSum = 0;
+    private int spectralFrames = 0;
+
+    private double[] magnitudeSum;   // Espectro medio para la frecuencia dominante
+    private double binHz;
+
+    private long zeroCrossings = 0;
+    private long zcrSamples = 0;
+
+    private double sumSquares = 0;   // Energía para dBFS y RMS
+    private long samples = 0;
+
+    public SpectralFeatures(int fs) {
+        this.fs = fs;
+    }
+
+    /**
+     * Añade una trama: su espectro de magnitud y el segmento temporal
+     * del que proviene (para la tasa de cruces por cero).
+     */
+    public void addFrame(double[] spectrum, double[] segment) {
+        addSpectrum(spectrum);
+        addZeroCrossings(zeroCrossings(segment, 0, segment.length), segment.length);
+    }
+
+    /**
+     * Cruces por cero entre muestras consecutivas de signal[from, to).
+     */
+    public static long zeroCrossings(double[] signal, int from, int to) {
+        long crossings = 0;
+        for (int i = from + 1; i < to; i++) {
+            if ((signal[i - 1] >= 0) != (signal[i] >= 0)) crossings++;
+        }
+        return crossings;
+    }
+
+    // Los conteos son enteros: acumularlos por fragmentos da el mismo resultado
+    public void addZeroCrossings(long crossings, long samples) {
+        zeroCrossings += crossings;
+        zcrSamples += samples;
+    }
+
+    /**
+     * Suma de cuadrados de un tramo de la señal (cada muestra una sola vez).
+     */
+    public void addEnergy(double sumSquares, long samples) {
+        this.sumSquares += sumSquares;
+        this.samples += samples;
+    }
+
+    public void addSpectrum(double[] spectrum) {
+        if (spectrum.length == 0) return;
+
+        // Tamaño de FFT = 2 * bins (ver CorrectionService.computeSpectrum)
+        double hz = (double) fs / (2 * spectrum.length);
+        if (magnitudeSum == null || magnitudeSum.length != spectrum.length) {
+            magnitudeSum = new double[spectrum.length];
+            binHz = hz;
+        }
+
+        double total = 0;
+        double weighted = 0;
+        for (int k = 0; k < spectrum.length; k++) {
+            double m = spectrum[k];
+            total += m;
+            weighted += m * k * hz;
+            magnitudeSum[k] += m;
+        }
+        if (total <= 0) return;
+
+        double target = ROLL_PERCENT * total;
+        double cumulative = 0;
+        int rolloffBin = spectrum.length - 1;
+        for (int k = 0; k < spectrum.length; k++) {
+            cumulative += spectrum[k];
+            if (cumulative >= target) {
+                rolloffBin = k;
+                break;
+            }
+        }
+
+        centroidSum += weighted / total;
+        rolloffSum += rolloffBin * hz;
+        spectralFrames++;
+    }
+
+    /**
+     * Suma los acumuladores de otro fragmento de la misma señal.
+     */
+    public SpectralFeatures append(SpectralFeatures next) {
+        centroidSum += next.centroidSum;
+        rolloffSum += next.rolloffSum;
+        spectralFrames += next.spectralFrames;
+        if (magnitudeSum == null) {
+            magnitudeSum = next.magnitudeSum;
+            binHz = next.binHz;
+        } else if (next.magnitudeSum != null) {
+            for (int k = 0; k < magnitudeSum.length; k++) magnitudeSum[k] += next.magnitudeSum[k];
+        }
+        zeroCrossings += next.zeroCrossings;
+        zcrSamples += next.zcrSamples;
+        sumSquares += next.sumSquares;
+        samples += next.samples;
+        return this;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(fs);
+        out.writeDouble(centroidSum);
+        out.writeDouble(rolloffSum);
+        out.writeInt(spectralFrames);
+        AnalysisPartial.writeDoubles(out, magnitudeSum);
+        out.writeDouble(binHz);
+        out.writeLong(zeroCrossings);
+        out.writeLong(zcrSamples);
+        out.writeDouble(sumSquares);
+        out.writeLong(samples);
+    }
+
+    public static SpectralFeatures read(DataInputStream in) throws IOException {
+        SpectralFeatures f = new SpectralFeatures(in.readInt());
+        f.centroidSum = in.readDouble();
+        f.rolloffSum = in.readDouble();
+        f.spectralFrames = in.readInt();
+        f.magnitudeSum = AnalysisPartial.readDoubles(in);
+        f.binHz = in.readDouble();
+        f.zeroCrossings = in.readLong();
+        f.zcrSamples = in.readLong();
+        f.sumSquares = in.readDouble();
+        f.samples = in.readLong();
+        return f;
+    }
+
+    /**
+     * Vuelca los descriptores en el DTO. dBFS y RMS usan la energía añadida con
+     * {@link #addEnergy} (toda la señal); centroide, rolloff, ZCR y frecuencia dominante solo
+     * las tramas añadidas, así que la ventana final incompleta queda fuera de ellos.
+     */
+    public void fill(AcousticAnalysisDTO dto) {
+        double rms = samples > 0 ? Math.sqrt(sumSquares / samples) : 0.0;
+
+        if (rms < SILENCE_RMS) {
+            dto.setDbfs(-100.0);
+            dto.setRmsEnergy(0.0);
+            dto.setDominantFrequency(0.0);
+            dto.setSpectralCentroid(0.0);
+            dto.setSpectralRolloff(0.0);
+            dto.setZeroCrossingRate(0.0);
+            return;
+        }
+
+        dto.setRmsEnergy(rms);
+        dto.setDbfs(20 * Math.log10(rms));
+        dto.setSpectralCentroid(spectralFrames > 0 ? centroidSum / spectralFrames : 0.0);
+        dto.setSpectralRolloff(spectralFrames > 0 ? rolloffSum / spectralFrames : 0.0);
+        dto.setZeroCrossingRate(zcrSamples > 0 ? (double) zeroCrossings / zcrSamples : 0.0);
+
+        int peak = 0;
+        if (magnitudeSum != null) {
+            for (int k = 1; k < magnitudeSum.length; k++) {
+                if (magnitudeSum[k] > magnitudeSum[peak]) peak = k;
+            }
+        }
+        dto.setDominantFrequency(peak * binHz);
+    }
+}
@@ -0,0 +1,306 @@
+package com.ud.metricssoundscalculator.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Ponderación temporal exponencial IEC 61672-1: Fast (125 ms), Slow (1 s) e
+ * Impulse (35 ms de subida, 1,5 s de caída), calculadas juntas en una sola pasada.
+ * <p>
+ * Los integradores avanzan una vez por trama, sobre la media de cuadrados de sus canales
+ * (señal ponderada A), así que las constantes de tiempo no dependen del número de canales.
+ * Los máximos, mínimos y la serie muestreada cada 125 ms se guardan en escala lineal y se
+ * pasan a dB solo al final, así que no hay logaritmos ni reservas de memoria por muestra.
+ * Los niveles usan la referencia del Leq ({@link SoundLevels}): LAFmax, LASmax y LAImax
+ * son comparables con él.
+ */
+public class TimeWeighting {
+
+    public static final double TAU_FAST = 0.125;
+    public static final double TAU_SLOW = 1.0;
+    public static final double TAU_IMPULSE_RISE = 0.035;
+    public static final double TAU_IMPULSE_DECAY = 1.5;
+
+    public static final int SERIES_MS = 125;
+
+    private final int fs;
+    private final int channels;
+    private final double aFast;
+    private final double aSlow;
+    private final double aImpulseRise;
+    private final double aImpulseDecay;
+
+    // Muestras que se ignoran para los mínimos mientras cada detector arranca desde cero
+    private final long settleFast;
+    private final long settleSlow;
+    private final long settleImpulse;
+
+    private final int seriesStep;
+
+    private double fast = 0, slow = 0, impulse = 0;
+    private double fastMax = 0, slowMax = 0, impulseMax = 0;
+    private double fastMin = Double.POSITIVE_INFINITY;
+    private double slowMin = Double.POSITIVE_INFINITY;
+    private double impulseMin = Double.POSITIVE_INFINITY;
+
+    private double[] fastSeries, slowSeries, impulseSeries;
+    private int seriesCount = 0;
+    private int untilNextPoint;
+    private long frames = 0;
+
+    /**
+     * Señal mono.
+     *
+     * @param fs             frecuencia de muestreo
+     * @param expectedLength número de muestras previsto, para reservar las series de una vez
+     */
+    public TimeWeighting(int fs, long expectedLength) {
+        this(fs, 1, expectedLength);
+    }
+
+    /**
+     * @param fs             frecuencia de muestreo
+     * @param channels       canales intercalados en la señal
+     * @param expectedLength número de muestras previsto (todos los canales), para reservar
+     *                       las series de una vez
+     */
+    public TimeWeighting(int fs, int channels, long expectedLength) {
+        this.fs = fs;
+        this.channels = Math.max(1, channels);
+        aFast = alpha(TAU_FAST, fs);
+        aSlow = alpha(TAU_SLOW, fs);
+        aImpulseRise = alpha(TAU_IMPULSE_RISE, fs);
+        aImpulseDecay = alpha(TAU_IMPULSE_DECAY, fs);
+
+        settleFast = (long) (5 * TAU_FAST * fs);
+        settleSlow = (long) (5 * TAU_SLOW * fs);
+        settleImpulse = (long) (5 * TAU_IMPULSE_RISE * fs);
+
+        seriesStep = (int) (SERIES_MS / 1000.0 * fs);
+        untilNextPoint = seriesStep;
+        int capacity = (int) Math.max(1, expectedLength / this.channels / seriesStep);
+        fastSeries = new double[capacity];
+        slowSeries = new double[capacity];
+        impulseSeries = new double[capacity];
+    }
+
+    private static double alpha(double tau, int fs) {
+        return 1 - Math.exp(-1.0 / (tau * fs));
+    }
+
+    public TimeWeighting process(double[] signal) {
+        return process(signal, 0, signal.length);
+    }
+
+    /**
+     * Integra signal[from, to), con {@code from} al inicio de una trama. Puede llamarse
+     * varias veces con bloques consecutivos de tramas completas.
+     */
+    public TimeWeighting process(double[] signal, int from, int to) {
+        for (int i = from; i + channels <= to; i += channels) {
+            double x2 = frameMeanSquare(signal, i);
+
+            fast += aFast * (x2 - fast);
+            slow += aSlow * (x2 - slow);
+            impulse += (x2 > impulse ? aImpulseRise : aImpulseDecay) * (x2 - impulse);
+
+            if (fast > fastMax) fastMax = fast;
+            if (slow > slowMax) slowMax = slow;
+            if (impulse > impulseMax) impulseMax = impulse;
+
+            frames++;
+            if (frames > settleFast && fast < fastMin) fastMin = fast;
+            if (frames > settleSlow && slow < slowMin) slowMin = slow;
+            if (frames > settleImpulse && impulse < impulseMin) impulseMin = impulse;
+
+            if (--untilNextPoint == 0) {
+                untilNextPoint = seriesStep;
+                if (seriesCount == fastSeries.length) growSeries();
+                fastSeries[seriesCount] = fast;
+                slowSeries[seriesCount] = slow;
+                impulseSeries[seriesCount] = impulse;
+                seriesCount++;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Solo asienta los integradores con signal[from, to) (pre-roll de un fragmento):
+     * no cuenta tramas ni registra extremos ni puntos de la serie.
+     */
+    public TimeWeighting warmUp(double[] signal, int from, int to) {
+        for (int i = from; i + channels <= to; i += channels) {
+            double x2 = frameMeanSquare(signal, i);
+            fast += aFast * (x2 - fast);
+            slow += aSlow * (x2 - slow);
+            impulse += (x2 > impulse ? aImpulseRise : aImpulseDecay) * (x2 - impulse);
+        }
+        return this;
+    }
+
+    private double frameMeanSquare(double[] signal, int i) {
+        if (channels == 1) return signal[i] * signal[i];
+        double sum = 0;
+        for (int c = 0; c < channels; c++) sum += signal[i + c] * signal[i + c];
+        return sum / channels;
+    }
+
+    /**
+     * Continúa en la trama global {@code frame}, para procesar un fragmento intermedio
+     * de la señal con el mismo asentamiento y la misma rejilla de la serie que la pasada completa.
+     */
+    public TimeWeighting resumeAt(long frame) {
+        frames = frame;
+        untilNextPoint = (int) (seriesStep - frame % seriesStep);
+        return this;
+    }
+
+    /** Estado de los integradores {Fast, Slow, Impulse}. */
+    public double[] getState() {
+        return new double[]{fast, slow, impulse};
+    }
+
+    public void setState(double[] state) {
+        fast = state[0];
+        slow = state[1];
+        impulse = state[2];
+    }
+
+    /**
+     * Añade el fragmento siguiente: extremos combinados y series concatenadas.
+     */
+    public TimeWeighting append(TimeWeighting next) {
+        fastMax = Math.max(fastMax, next.fastMax);
+        slowMax = Math.max(slowMax, next.slowMax);
+        impulseMax = Math.max(impulseMax, next.impulseMax);
+        fastMin = Math.min(fastMin, next.fastMin);
+        slowMin = Math.min(slowMin, next.slowMin);
+        impulseMin = Math.min(impulseMin, next.impulseMin);
+
+        int count = seriesCount + next.seriesCount;
+        if (count > fastSeries.length) {
+            fastSeries = Arrays.copyOf(fastSeries, count);
+            slowSeries = Arrays.copyOf(slowSeries, count);
+            impulseSeries = Arrays.copyOf(impulseSeries, count);
+        }
+        System.arraycopy(next.fastSeries, 0, fastSeries, seriesCount, next.seriesCount);
+        System.arraycopy(next.slowSeries, 0, slowSeries, seriesCount, next.seriesCount);
+        System.arraycopy(next.impulseSeries, 0, impulseSeries, seriesCount, next.seriesCount);
+        seriesCount = count;
+
+        fast = next.fast;
+        slow = next.slow;
+        impulse = next.impulse;
+        frames = next.frames;
+        untilNextPoint = next.untilNextPoint;
+        return this;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(fs);
+        out.writeInt(channels);
+        for (double v : new double[]{fast, slow, impulse, fastMax, slowMax, impulseMax, fastMin, slowMin, impulseMin}) {
+            out.writeDouble(v);
+        }
+        out.writeLong(frames);
+        out.writeInt(untilNextPoint);
+        out.writeInt(seriesCount);
+        for (int i = 0; i < seriesCount; i++) {
+            out.writeDouble(fastSeries[i]);
+            out.writeDouble(slowSeries[i]);
+            out.writeDouble(impulseSeries[i]);
+        }
+    }
+
+    static TimeWeighting read(DataInputStream in) throws IOException {
+        int fs = in.readInt();
+        int channels = in.readInt();
+        TimeWeighting tw = new TimeWeighting(fs, channels, 0);
+        tw.fast = in.readDouble();
+        tw.slow = in.readDouble();
+        tw.impulse = in.readDouble();
+        tw.fastMax = in.readDouble();
+        tw.slowMax = in.readDouble();
+        tw.impulseMax = in.readDouble();
+        tw.fastMin = in.readDouble();
+        tw.slowMin = in.readDouble();
+        tw.impulseMin = in.readDouble();
+        tw.frames = in.readLong();
+        tw.untilNextPoint = in.readInt();
+        int count = in.readInt();
+        tw.fastSeries = new double[Math.max(1, count)];
+        tw.slowSeries = new double[Math.max(1, count)];
+        tw.impulseSeries = new double[Math.max(1, count)];
+        for (int i = 0; i < count; i++) {
+            tw.fastSeries[i] = in.readDouble();
+            tw.slowSeries[i] = in.readDouble();
+            tw.impulseSeries[i] = in.readDouble();
+        }
+        tw.seriesCount = count;
+        return tw;
+    }
+
+    private void growSeries() {
+        int n = fastSeries.length * 2;
+        fastSeries = Arrays.copyOf(fastSeries, n);
+        slowSeries = Arrays.copyOf(slowSeries, n);
+        impulseSeries = Arrays.copyOf(impulseSeries, n);
+    }
+
+    private static double db(double meanSquare) {
+        return SoundLevels.fromMeanSquare(meanSquare);
+    }
+
+    // Si la señal es más corta que el tiempo de asentamiento no hay mínimo válido
+    private static double minDb(double meanSquare) {
+        return meanSquare == Double.POSITIVE_INFINITY ? Double.NaN : db(meanSquare);
+    }
+
+    private static double[] seriesDb(double[] series, int count) {
+        double[] out = new double[count];
+        for (int i = 0; i < count; i++) out[i] = db(series[i]);
+        return out;
+    }
+
+    public double getLafMax() {
+        return db(fastMax);
+    }
+
+    public double getLasMax() {
+        return db(slowMax);
+    }
+
+    public double getLaiMax() {
+        return db(impulseMax);
+    }
+
+    public double getLafMin() {
+        return minDb(fastMin);
+    }
+
+    public double getLasMin() {
+        return minDb(slowMin);
+    }
+
+    public double getLaiMin() {
+        return minDb(impulseMin);
+    }
+
+    /** LAF muestreado cada 125 ms. */
+    public double[] getFastSeries() {
+        return seriesDb(fastSeries, seriesCount);
+    }
+
+    /** LAS muestreado cada 125 ms. */
+    public double[] getSlowSeries() {
+        return seriesDb(slowSeries, seriesCount);
+    }
+
+    /** LAI muestreado cada 125 ms. */
+    public double[] getImpulseSeries() {
+        return seriesDb(impulseSeries, seriesCount);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ud.metricssoundscalculator.core;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementación SIMD con la Vector API (incubadora en JDK 17).
+ * Solo se instancia desde {@link SignalKernels#get()} cuando el módulo está cargado.
+ * Las sumas se acumulan por carril, así que pueden diferir de la escalar en el último bit.
+ */
+class VectorKernels implements SignalKernels {
+
+    private static final VectorSpecies<Double> D = DoubleVector.SPECIES_PREFERRED;
+    // Mismo número de carriles que D, para convertir float <-> double sin partir vectores
+    private static final VectorSpecies<Float> F =
+            VectorSpecies.of(float.class, VectorShape.forBitSize(D.vectorBitSize() / 2));
+
+    private final ScalarKernels tail = new ScalarKernels();
+
+    @Override
+    public double sumOfSquares(double[] a, int from, int to) {
+        int upper = from + D.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(D);
+        int i = from;
+        for (; i < upper; i += D.length()) {
+            DoubleVector v = DoubleVector.fromArray(D, a, i);
+            acc = acc.add(v.mul(v));
+        }
+        return acc.reduceLanes(VectorOperators.ADD) + tail.sumOfSquares(a, i, to);
+    }
+
+    @Override
+    public double maxAbs(double[] a, int from, int to) {
+        int upper = from + D.loopBound(to - from);
+        DoubleVector acc = DoubleVector.zero(D);
+        int i = from;
+        for (; i < upper; i += D.length()) {
+            acc = acc.max(DoubleVector.fromArray(D, a, i).abs());
+        }
+        return Math.max(acc.reduceLanes(VectorOperators.MAX), tail.maxAbs(a, i, to));
+    }
+
+    @Override
+    public double minAbs(double[] a, int from, int to) {
+        int upper = from + D.loopBound(to - from);
+        DoubleVector acc = DoubleVector.broadcast(D, Double.POSITIVE_INFINITY);
+        int i = from;
+        for (; i < upper; i += D.length()) {
+            acc = acc.min(DoubleVector.fromArray(D, a, i).abs());
+        }
+        return Math.min(acc.reduceLanes(VectorOperators.MIN), tail.minAbs(a, i, to));
+    }
+
+    @Override
+    public void toDouble(float[] src, double[] dst, int n) {
+        int upper = F.loopBound(n);
+        int i = 0;
+        for (; i < upper; i += F.length()) {
+            ((DoubleVector) FloatVector.fromArray(F, src, i).convertShape(VectorOperators.F2D, D, 0))
+                    .intoArray(dst, i);
+        }
+        for (; i < n; i++) dst[i] = src[i];
+    }
+
+    @Override
+    public void toFloat(double[] src, float[] dst, int n) {
+        int upper = D.loopBound(n);
+        int i = 0;
+        for (; i < upper; i += D.length()) {
+            ((FloatVector) DoubleVector.fromArray(D, src, i).convertShape(VectorOperators.D2F, F, 0))
+                    .intoArray(dst, i);
+        }
+        for (; i < n; i++) dst[i] = (float) src[i];
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + D.vectorBitSize();
+    }
+}
@@ -0,0 +1,76 @@
+package com.ud.metricssoundscalculator.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ubicación del bloque "data" de un archivo RIFF/WAVE.
+ * Permite leer un rango de tramas con un seek directo en lugar de recorrer el archivo.
+ */
+final class WavHeader {
+
+    private final long dataOffset; // posición del primer byte de audio
+    private final long dataLength; // bytes de audio disponibles
+
+    private WavHeader(long dataOffset, long dataLength) {
+        this.dataOffset = dataOffset;
+        this.dataLength = dataLength;
+    }
+
+    /**
+     * Recorre los bloques RIFF hasta encontrar "data".
+     *
+     * @return null si el archivo no es RIFF/WAVE o no tiene bloque de datos
+     */
+    static WavHeader read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long fileLength = raf.length();
+            if (fileLength < 12) return null;
+
+            byte[] id = new byte[4];
+            raf.readFully(id);
+            if (!chunkId(id).equals("RIFF")) return null;
+            raf.skipBytes(4);
+            raf.readFully(id);
+            if (!chunkId(id).equals("WAVE")) return null;
+
+            long pos = 12;
+            while (pos + 8 <= fileLength) {
+                raf.seek(pos);
+                raf.readFully(id);
+                long size = Integer.toUnsignedLong(Integer.reverseBytes(raf.readInt()));
+                if (chunkId(id).equals("data")) {
+                    // Los grabadores que no cierran la cabecera dejan tamaños inválidos
+                    return new WavHeader(pos + 8, Math.min(size, fileLength - pos - 8));
+                }
+                pos += 8 + size + (size & 1); // los bloques se alinean a 2 bytes
+            }
+            return null;
+        }
+    }
+
+    private static String chunkId(byte[] id) {
+        return new String(id, StandardCharsets.US_ASCII);
+    }
+
+    long getDataLength() {
+        return dataLength;
+    }
+
+    /**
+     * Lee las tramas [from, to) directamente desde su posición en el archivo.
+     */
+    byte[] readFrames(File file, long from, long to, int frameSize) throws IOException {
+        long first = from * frameSize;
+        long last = Math.min(to, dataLength / frameSize) * frameSize;
+        byte[] bytes = new byte[Math.toIntExact(Math.max(0, last - first))];
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(dataOffset + first);
+            raf.readFully(bytes);
+        }
+        return bytes;
+    }
+}
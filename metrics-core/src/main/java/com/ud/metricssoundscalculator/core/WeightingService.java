@@ -1,10 +1,11 @@
-package com.ud.metricssoundscalculator.service;
+package com.ud.metricssoundscalculator.core;
 
-import org.springframework.stereotype.Service;
-
-@Service
 public class WeightingService {
 
+    // Pre-roll para asentar el filtro al empezar a mitad de archivo; el polo más lento
+    // (20.6 Hz) decae muy por debajo de la resolución de 24 bits en este tiempo
+    static final double WARM_UP_SEC = 0.5;
+
     /**
      * Aplica el filtro de ponderación A a la señal de audio.
      * Basado en IEC 61672:1
@@ -14,16 +15,24 @@ public class WeightingService {
      * @return señal filtrada con ponderación A
      */
     public double[] applyAWeighting(double[] signal, int fs) {
+        return applyAWeighting(signal, fs, 0);
+    }
+
+    /**
+     * Igual que {@link #applyAWeighting(double[], int)}, pero las primeras {@code warmUp}
+     * muestras solo asientan el estado del filtro y no forman parte de la salida.
+     */
+    public double[] applyAWeighting(double[] signal, int fs, int warmUp) {
         // Coeficientes del filtro A-weighting para la frecuencia de muestreo dada
         BiquadFilter[] filters = AWeighting.getFilters(fs);
 
-        double[] output = new double[signal.length];
+        double[] output = new double[signal.length - warmUp];
         for (int i = 0; i < signal.length; i++) {
             double x = signal[i];
             for (BiquadFilter f : filters) {
                 x = f.process(x);
             }
-            output[i] = x;
+            if (i >= warmUp) output[i - warmUp] = x;
         }
         return output;
     }
@@ -49,6 +58,20 @@ public class WeightingService {
             z2 = b2 * in - a2 * out;
             return out;
         }
+
+        // Estado interno, para continuar el filtrado de un tramo en otro proceso
+        double getZ1() {
+            return z1;
+        }
+
+        double getZ2() {
+            return z2;
+        }
+
+        void setState(double z1, double z2) {
+            this.z1 = z1;
+            this.z2 = z2;
+        }
     }
 
     /**
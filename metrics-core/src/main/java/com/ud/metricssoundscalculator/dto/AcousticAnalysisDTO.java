@@ -19,8 +19,15 @@ public class AcousticAnalysisDTO {
     private double lmin;             // Nivel mínimo
 
     // Duraciones sobre umbrales normativos
-    private double durationAbove65;
-    private double durationAbove70;
+    private Map<String, Double> durationAbove; // Tiempo sobre cada umbral solicitado (s)
+    private Double durationAbove65;            // null si 65 dB no está entre los umbrales
+    private Double durationAbove70;            // null si 70 dB no está entre los umbrales
+
+    // Eventos de ruido (inicio, fin, Lmax, Leq, SEL)
+    private List<NoiseEventDTO> events;
+
+    // Ponderación temporal IEC 61672 (Fast, Slow, Impulse)
+    private TimeWeightingDTO timeWeighting;
 
     // Variabilidad
     private double deltaL;           // L10 - L90
@@ -30,10 +37,21 @@ public class AcousticAnalysisDTO {
     private double[] leqSeries;      // Evolución temporal de Leq (ej. ventanas de 1 min)
 
     // Representaciones en frecuencia
-    private double[] spectrumPreview;       // Espectro reducido para graficar
+    private double[] spectrumPreview;       // Espectro reducido para graficar (normalizado)
     private Map<String, Double> octaveBands; // Bandas de tercio de octava
     private double[][] spectrogram;         // Espectrograma tiempo-frecuencia
 
+    // Descriptores espectrales (los de process_audio.py, sobre la señal ponderada A).
+    // dbfs y rmsEnergy cubren toda la señal; los demás salen de las ventanas completas del
+    // espectrograma y no incluyen la ventana final incompleta (salvo si la señal es más
+    // corta que una ventana, en cuyo caso usan la señal entera)
+    private double dbfs;                // Nivel RMS en dB Full Scale (señal completa)
+    private double rmsEnergy;           // Valor RMS de la señal (señal completa)
+    private double dominantFrequency;   // Pico del espectro medio (Hz, ventanas completas)
+    private double spectralCentroid;    // Centroide espectral medio (Hz, ventanas completas)
+    private double spectralRolloff;     // Rolloff medio al 85 % de la energía (Hz, ventanas completas)
+    private double zeroCrossingRate;    // Cruces por cero por muestra (ventanas completas)
+
     // Histogramas
     private Map<String, Integer> levelHistogram; // Distribución de niveles en rangos dB
 
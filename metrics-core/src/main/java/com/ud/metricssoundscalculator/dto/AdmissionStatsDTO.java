@@ -0,0 +1,15 @@
+package com.ud.metricssoundscalculator.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class AdmissionStatsDTO {
+    private long budgetBytes;      // Presupuesto total de memoria para análisis
+    private long reservedBytes;    // Memoria reservada por peticiones en curso
+    private int activeRequests;    // Peticiones admitidas en ejecución
+    private int queuedRequests;    // Peticiones esperando presupuesto
+    private long admittedTotal;    // Peticiones admitidas desde el arranque
+    private long rejectedTotal;    // Peticiones rechazadas desde el arranque
+}
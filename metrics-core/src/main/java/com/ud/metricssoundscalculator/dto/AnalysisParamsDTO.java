@@ -0,0 +1,17 @@
+package com.ud.metricssoundscalculator.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class AnalysisParamsDTO {
+    private int windowSec;             // Ventana del Leq móvil y del espectrograma (s)
+    private List<Double> thresholds;   // Umbrales de eventos (dB)
+    private double hysteresisDb;       // Histéresis de eventos (dB)
+    private double minEventSec;        // Duración mínima de evento (s)
+    private Double start;              // Inicio del tramo analizado (s), null = inicio del archivo
+    private Double end;                // Fin del tramo analizado (s), null = fin del archivo
+}
@@ -7,6 +7,8 @@ import lombok.Setter;
 @Setter
 public class AudioData {
     private double[] signal;   // señal en double[]
+    private double[] mono;     // señal sin ponderar mezclada a mono, solo si se pidió
     private int sampleRate;    // frecuencia de muestreo
     private int channels;      // número de canales
+    private double startSec;   // inicio del tramo analizado dentro del archivo (s)
 }
\ No newline at end of file
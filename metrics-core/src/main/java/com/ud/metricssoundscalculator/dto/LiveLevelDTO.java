@@ -0,0 +1,16 @@
+package com.ud.metricssoundscalculator.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class LiveLevelDTO {
+    private String stationId;   // Identificador de la grabadora
+    private long timestamp;     // Instante del bloque (epoch ms)
+    private double elapsedSec;  // Segundos de audio recibidos desde el inicio
+    private double level;       // Nivel del último bloque Fast (125 ms)
+    private double leq;         // Leq acumulado desde el inicio de la sesión
+    private int sampleRate;     // Frecuencia de muestreo
+    private int channels;       // Número de canales
+}
@@ -0,0 +1,16 @@
+package com.ud.metricssoundscalculator.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class NoiseEventDTO {
+    private double threshold;   // Umbral que disparó el evento (dB)
+    private double start;       // Inicio del evento (s)
+    private double end;         // Fin del evento (s)
+    private double duration;    // Duración (s)
+    private double lmax;        // Nivel máximo de bloque durante el evento
+    private double leq;         // Nivel equivalente del evento
+    private double sel;         // Nivel de exposición sonora (SEL)
+}
@@ -0,0 +1,17 @@
+package com.ud.metricssoundscalculator.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+public class NoiseEventsDTO {
+    private List<NoiseEventDTO> events;       // Eventos detectados (todos los umbrales)
+    private Map<String, Double> durationAbove; // Tiempo sobre cada umbral (s)
+    private double hysteresisDb;              // Histéresis aplicada (dB)
+    private double minEventSec;               // Duración mínima de evento (s)
+    private int sampleRate;                   // Frecuencia de muestreo
+    private int channels;                     // Número de canales
+}
@@ -0,0 +1,18 @@
+package com.ud.metricssoundscalculator.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+public class ResultEntryDTO {
+    private String id;                // Identificador del resultado: hash del audio + parámetros
+    private String contentHash;       // SHA-256 del archivo de audio analizado
+    private AnalysisParamsDTO params;  // Parámetros con que se analizó (null en índices antiguos)
+    private Instant recordedAt;       // Fecha de la grabación (null si no se conoce)
+    private Instant storedAt;         // Fecha en que se archivó el resultado
+    private String fileName;          // Nombre original del archivo subido
+    private long sizeBytes;           // Tamaño del resultado archivado
+}
@@ -0,0 +1,20 @@
+package com.ud.metricssoundscalculator.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class TimeWeightingDTO {
+    private double lafMax;          // Máximo con ponderación Fast (125 ms)
+    private double lasMax;          // Máximo con ponderación Slow (1 s)
+    private double laiMax;          // Máximo con ponderación Impulse
+    private double lafMin;          // Mínimo Fast (tras el asentamiento del detector)
+    private double lasMin;          // Mínimo Slow
+    private double laiMin;          // Mínimo Impulse
+    private double[] lafSeries;     // LAF muestreado cada 125 ms
+    private double[] lasSeries;     // LAS muestreado cada 125 ms
+    private double[] laiSeries;     // LAI muestreado cada 125 ms
+    private int sampleRate;         // Frecuencia de muestreo
+    private int channels;           // Número de canales
+}
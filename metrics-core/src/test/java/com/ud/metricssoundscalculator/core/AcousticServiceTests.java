@@ -0,0 +1,40 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AcousticServiceTests {
+
+    private static final int FS = 48000;
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void toneBandLevelMatchesBetweenAnalysisAndOctaveBands() throws Exception {
+        File wav = tmp.resolve("tone.wav").toFile();
+        TestAudio.writeWav(TestAudio.toneWithNoise(FS, 10 * FS, 1000, 0.5, 0), FS, wav);
+
+        AcousticService service = new AcousticService();
+        // /octave-bands: una FFT de toda la señal; /analyze: promedio de ventanas de 1 s y 2 s
+        Map<String, Double> full = service.getOctaveBands(wav, AudioRange.FULL).getOctaveBands();
+        AcousticAnalysisDTO oneSec = service.getAnalysis(wav, 1, List.of(65.0), 3, 1, AudioRange.FULL);
+        AcousticAnalysisDTO twoSec = service.getAnalysis(wav, 2, List.of(65.0), 3, 1, AudioRange.FULL);
+
+        double band = full.get("1000 Hz");
+        assertEquals(band, oneSec.getOctaveBands().get("1000 Hz"), 0.5);
+        assertEquals(band, twoSec.getOctaveBands().get("1000 Hz"), 0.5);
+
+        // Escala normalizada: la banda del tono no supera la media de cuadrados de la señal
+        double meanSquareDb = 10 * Math.log10(oneSec.getRmsEnergy() * oneSec.getRmsEnergy());
+        assertTrue(band <= meanSquareDb + 0.5);
+    }
+}
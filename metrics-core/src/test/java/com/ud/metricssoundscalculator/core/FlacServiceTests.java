@@ -0,0 +1,218 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.HistogramDTO;
+import com.ud.metricssoundscalculator.dto.LeqSeriesDTO;
+import org.jflac.FLACDecoder;
+import org.jflac.frame.Frame;
+import org.jflac.metadata.StreamInfo;
+import org.jflac.util.ByteData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlacServiceTests {
+
+    private static final int FS = 48000;
+    private static final int BLOCK = 4096;
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void flacAndWavGiveIdenticalMetrics() throws Exception {
+        short[] pcm = TestAudio.toneWithNoise(FS, 2 * FS + 1234, 440, 0.3, 0.05);
+
+        File wav = tmp.resolve("a.wav").toFile();
+        TestAudio.writeWav(pcm, FS, wav);
+        File flac = tmp.resolve("a.flac").toFile();
+        Files.write(flac.toPath(), encodeVerbatimFlac(pcm));
+
+        FlacService flacService = new FlacService();
+        assertTrue(flacService.isFlac(flac));
+        assertFalse(flacService.isFlac(wav));
+
+        AcousticService service = new AcousticService();
+        HistogramDTO hWav = service.getHistogram(wav, AudioRange.FULL);
+        HistogramDTO hFlac = service.getHistogram(flac, AudioRange.FULL);
+        assertEquals(hWav.getLeq(), hFlac.getLeq(), 0.0);
+        assertEquals(hWav.getLmax(), hFlac.getLmax(), 0.0);
+        assertEquals(hWav.getHistogram(), hFlac.getHistogram());
+
+        LeqSeriesDTO sWav = service.getLeqSeries(wav, 1, AudioRange.FULL);
+        LeqSeriesDTO sFlac = service.getLeqSeries(flac, 1, AudioRange.FULL);
+        assertArrayEquals(sWav.getLeqSeries(), sFlac.getLeqSeries(), 0.0);
+    }
+
+    @Test
+    void encodedFixtureDecodesToItsPcm() throws Exception {
+        // Codificado a mano a partir de stereo.wav (440 Hz + 3 kHz con ruido, 48 kHz, 16 bits):
+        // FIXED, LPC, CONSTANT y VERBATIM con residuo Rice y MD5 en STREAMINFO, en los cuatro
+        // modos de canales (independiente, izq./lateral, lateral/der., medio/lateral)
+        File flac = fixture("stereo.flac");
+        File wav = fixture("stereo.wav");
+
+        StreamInfo info = new FlacService().readStreamInfo(flac);
+        assertEquals(FS, info.getSampleRate());
+        assertEquals(2, info.getChannels());
+        assertEquals(3 * BLOCK + 1000, info.getTotalSamples());
+        assertTrue(flac.length() < wav.length());
+
+        // PCM decodificado, trama a trama, frente al bloque "data" del WAV
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        try (InputStream in = Files.newInputStream(flac.toPath())) {
+            FLACDecoder decoder = new FLACDecoder(in);
+            decoder.readMetadata();
+            ByteData pcm = null;
+            Frame frame;
+            while ((frame = decoder.readNextFrame()) != null) {
+                pcm = decoder.decodeFrame(frame, pcm);
+                decoded.write(pcm.getData(), 0, pcm.getLen());
+            }
+        }
+        byte[] expected = Arrays.copyOfRange(Files.readAllBytes(wav.toPath()), 44, (int) wav.length());
+        assertArrayEquals(expected, decoded.toByteArray());
+
+        // Y por la ruta del servicio, con ponderación A en línea
+        AcousticService service = new AcousticService();
+        assertArrayEquals(service.getLeqSeries(wav, 1, AudioRange.FULL).getLeqSeries(),
+                service.getLeqSeries(flac, 1, AudioRange.FULL).getLeqSeries(), 0.0);
+        assertEquals(service.getHistogram(wav, AudioRange.FULL).getLeq(),
+                service.getHistogram(flac, AudioRange.FULL).getLeq(), 0.0);
+    }
+
+    private static File fixture(String name) throws Exception {
+        return Paths.get(FlacServiceTests.class.getResource("/flac/" + name).toURI()).toFile();
+    }
+
+    @Test
+    void rangeMatchesTheSameSecondsOfTheFullAnalysis() throws Exception {
+        short[] pcm = TestAudio.toneWithNoise(FS, 6 * FS, 440, 0.3, 0.05);
+
+        File wav = tmp.resolve("b.wav").toFile();
+        TestAudio.writeWav(pcm, FS, wav);
+        File flac = tmp.resolve("b.flac").toFile();
+        Files.write(flac.toPath(), encodeVerbatimFlac(pcm));
+
+        AcousticService service = new AcousticService();
+        double[] full = service.getLeqSeries(wav, 1, AudioRange.FULL).getLeqSeries();
+        AudioRange range = AudioRange.of(2.0, 5.0);
+
+        // El pre-roll deja el filtro en el mismo estado que la pasada completa
+        double[] wavRange = service.getLeqSeries(wav, 1, range).getLeqSeries();
+        double[] flacRange = service.getLeqSeries(flac, 1, range).getLeqSeries();
+        assertArrayEquals(Arrays.copyOfRange(full, 2, 5), wavRange, 1e-9);
+        assertArrayEquals(wavRange, flacRange, 1e-9);
+
+        // Fin más allá del archivo: se acota a la duración real
+        double[] tail = service.getLeqSeries(wav, 1, AudioRange.of(4.0, 60.0)).getLeqSeries();
+        assertArrayEquals(Arrays.copyOfRange(full, 4, 6), tail, 1e-9);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getLeqSeries(wav, 1, AudioRange.of(10.0, null)));
+        assertThrows(IllegalArgumentException.class, () -> AudioRange.of(3.0, 2.0));
+    }
+
+    // Codificador FLAC mínimo (mono, 16 bits, subtramas VERBATIM) para las pruebas
+    private static byte[] encodeVerbatimFlac(short[] pcm) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{'f', 'L', 'a', 'C'});
+
+        // Bloque STREAMINFO (último bloque de metadatos)
+        out.write(0x80);
+        out.write(0);
+        out.write(0);
+        out.write(34);
+        BitWriter info = new BitWriter();
+        info.write(BLOCK, 16);
+        info.write(BLOCK, 16);
+        info.write(0, 24);
+        info.write(0, 24);
+        info.write(FS, 20);
+        info.write(0, 3);            // canales - 1
+        info.write(15, 5);           // bits - 1
+        info.write(pcm.length >>> 32, 4);
+        info.write(pcm.length, 32);
+        for (int i = 0; i < 4; i++) info.write(0, 32); // MD5 desconocido
+        out.writeBytes(info.toByteArray());
+
+        int frames = (pcm.length + BLOCK - 1) / BLOCK;
+        assertTrue(frames < 128);
+        for (int f = 0; f < frames; f++) {
+            int start = f * BLOCK;
+            int size = Math.min(BLOCK, pcm.length - start);
+
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            frame.write(0xFF);
+            frame.write(0xF8);           // sincronía + tamaño de bloque fijo
+            frame.write(0x70);           // tamaño de bloque en 16 bits, fs de STREAMINFO
+            frame.write(0x00);           // mono, bits de STREAMINFO
+            frame.write(f);              // número de trama (UTF-8, < 128)
+            frame.write((size - 1) >> 8);
+            frame.write(size - 1);
+            frame.write(crc8(frame.toByteArray()));
+
+            frame.write(0x02);           // subtrama VERBATIM
+            for (int i = 0; i < size; i++) {
+                frame.write(pcm[start + i] >> 8);
+                frame.write(pcm[start + i]);
+            }
+            int crc = crc16(frame.toByteArray());
+            frame.write(crc >> 8);
+            frame.write(crc);
+            out.writeBytes(frame.toByteArray());
+        }
+        return out.toByteArray();
+    }
+
+    private static int crc8(byte[] data) {
+        int crc = 0;
+        for (byte b : data) {
+            crc ^= b & 0xFF;
+            for (int i = 0; i < 8; i++) {
+                crc = (crc & 0x80) != 0 ? ((crc << 1) ^ 0x07) & 0xFF : (crc << 1) & 0xFF;
+            }
+        }
+        return crc;
+    }
+
+    private static int crc16(byte[] data) {
+        int crc = 0;
+        for (byte b : data) {
+            crc ^= (b & 0xFF) << 8;
+            for (int i = 0; i < 8; i++) {
+                crc = (crc & 0x8000) != 0 ? ((crc << 1) ^ 0x8005) & 0xFFFF : (crc << 1) & 0xFFFF;
+            }
+        }
+        return crc;
+    }
+
+    private static class BitWriter {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private long acc = 0;
+        private int bits = 0;
+
+        void write(long value, int n) {
+            for (int i = n - 1; i >= 0; i--) {
+                acc = (acc << 1) | ((value >>> i) & 1);
+                if (++bits == 8) {
+                    out.write((int) acc);
+                    acc = 0;
+                    bits = 0;
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
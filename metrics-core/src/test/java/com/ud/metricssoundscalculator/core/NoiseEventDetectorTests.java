@@ -0,0 +1,84 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.NoiseEventDTO;
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NoiseEventDetectorTests {
+
+    @TempDir
+    Path tmp;
+
+    // Energía media de un bloque con el nivel indicado (referencia de 20 µPa)
+    private static double meanSq(double levelDb) {
+        double rms = SoundLevels.REFERENCE_PA * Math.pow(10, levelDb / 20);
+        return rms * rms;
+    }
+
+    @Test
+    void appliesHysteresisAndMinimumDuration() {
+        NoiseEventDetector detector = new NoiseEventDetector(List.of(70.0, 65.0), 3, 0.25, 48000);
+
+        double[] levels = {60, 72, 68, 72, 66, 60, 60, 71, 60};
+        for (double l : levels) detector.addBlock(meanSq(l));
+        detector.finish();
+
+        List<NoiseEventDTO> events = detector.getEvents();
+        // 65 dB: bloques 1-4 (66 no baja de 62); 70 dB: bloques 1-3 (68 no baja de 67)
+        // Los eventos del bloque 7 duran 125 ms y se descartan
+        assertEquals(2, events.size());
+
+        NoiseEventDTO e65 = events.get(0);
+        assertEquals(65.0, e65.getThreshold(), 0.0);
+        assertEquals(0.125, e65.getStart(), 1e-12);
+        assertEquals(0.625, e65.getEnd(), 1e-12);
+        assertEquals(72.0, e65.getLmax(), 1e-9);
+        assertEquals(e65.getLeq() + 10 * Math.log10(0.5), e65.getSel(), 1e-9);
+
+        NoiseEventDTO e70 = events.get(1);
+        assertEquals(70.0, e70.getThreshold(), 0.0);
+        assertEquals(0.5, e70.getEnd(), 1e-12);
+
+        assertEquals(5 * 0.125, detector.getDurationAbove(65), 1e-12);
+        assertEquals(3 * 0.125, detector.getDurationAbove(70), 1e-12);
+    }
+
+    @Test
+    void defaultThresholdsFindALoudBurstInAWav() throws Exception {
+        // 10 s de ruido bajo con 3 s de un tono fuerte de 4 kHz entre 4 s y 7 s
+        int fs = 48000;
+        Random random = new Random(7);
+        short[] pcm = new short[10 * fs];
+        for (int i = 0; i < pcm.length; i++) {
+            double loud = i >= 4 * fs && i < 7 * fs ? 0.9 * Math.sin(2 * Math.PI * 4000 * i / fs) : 0;
+            pcm[i] = TestAudio.toPcm(loud + 0.001 * random.nextGaussian());
+        }
+        File wav = tmp.resolve("burst.wav").toFile();
+        TestAudio.writeWav(pcm, fs, wav);
+
+        AcousticAnalysisDTO dto = new AcousticService()
+                .getAnalysis(wav, 1, List.of(65.0, 70.0), 3, 1, AudioRange.FULL);
+
+        // El tono queda por encima de 65 dB en la misma escala que el Leq, no de 70 dB
+        assertEquals(1, dto.getEvents().size());
+        NoiseEventDTO event = dto.getEvents().get(0);
+        assertEquals(65.0, event.getThreshold(), 0.0);
+        assertEquals(4.0, event.getStart(), 0.125);
+        assertEquals(7.0, event.getEnd(), 0.125);
+        assertEquals(3.0, dto.getDurationAbove65(), 0.125);
+        assertEquals(0.0, dto.getDurationAbove70(), 0.0);
+
+        // El evento concentra casi toda la energía: su Leq es el de la señal más 10·log10(10 s / 3 s)
+        assertTrue(event.getLmax() >= event.getLeq());
+        assertEquals(dto.getLeq() + 10 * Math.log10(10.0 / 3.0), event.getLeq(), 0.5);
+        assertEquals(event.getLeq() + 10 * Math.log10(event.getDuration()), event.getSel(), 1e-9);
+    }
+}
@@ -0,0 +1,65 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultArchiveCodecTests {
+
+    private static final int FS = 48000;
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void roundTripRestoresTheAnalysis() throws Exception {
+        // 3 s de ruido de fondo con una ráfaga fuerte en el segundo central
+        short[] pcm = new short[3 * FS];
+        for (int i = 0; i < pcm.length; i++) {
+            double amplitude = i >= FS && i < 2 * FS ? 0.6 : 0.01;
+            pcm[i] = (short) (amplitude * Short.MAX_VALUE * Math.sin(2 * Math.PI * 1000 * i / FS));
+        }
+        File wav = tmp.resolve("r.wav").toFile();
+        TestAudio.writeWav(pcm, FS, wav);
+
+        AcousticAnalysisDTO original = new AcousticService()
+                .getAnalysis(wav, 1, List.of(65.0, 70.0), 3, 0.25, AudioRange.FULL);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultArchiveCodec.write(original, out);
+        AcousticAnalysisDTO restored = ResultArchiveCodec.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(original.getLeq(), restored.getLeq(), 0.0);
+        assertEquals(original.getLn(), restored.getLn());
+        assertEquals(original.getDurationAbove(), restored.getDurationAbove());
+        assertEquals(original.getDurationAbove65(), restored.getDurationAbove65());
+        assertEquals(original.getEvents().size(), restored.getEvents().size());
+        for (int i = 0; i < original.getEvents().size(); i++) {
+            assertEquals(original.getEvents().get(i).getSel(), restored.getEvents().get(i).getSel(), 0.0);
+        }
+        assertArrayEquals(original.getTimeWeighting().getLafSeries(), restored.getTimeWeighting().getLafSeries(), 0.0);
+        assertArrayEquals(original.getLevels(), restored.getLevels(), 0.0);
+        assertArrayEquals(original.getSpectrumPreview(), restored.getSpectrumPreview(), 0.0);
+        // El espectrograma se guarda en float sin pérdida
+        assertEquals(original.getSpectrogram().length, restored.getSpectrogram().length);
+        for (int f = 0; f < original.getSpectrogram().length; f++) {
+            assertArrayEquals(original.getSpectrogram()[f], restored.getSpectrogram()[f], 0.0);
+        }
+        assertEquals(original.getLevelHistogram(), restored.getLevelHistogram());
+        assertEquals(original.getSpectralCentroid(), restored.getSpectralCentroid(), 0.0);
+        assertNull(restored.getIacc());
+        assertNull(restored.getTiacc());
+
+        // Más compacto que el espectrograma en double sin comprimir
+        long rawSpectrogram = (long) original.getSpectrogram().length * original.getSpectrogram()[0].length * Double.BYTES;
+        assertTrue(out.size() < rawSpectrogram / 2);
+    }
+}
@@ -0,0 +1,172 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardCoordinatorTests {
+
+    // Umbrales entre el fondo (≈ 32 dB) y las ráfagas (≈ 46 dB), para que estas generen eventos
+    private static final List<Double> THRESHOLDS = List.of(41.0, 44.0);
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void shardedAnalysisMatchesSingleNode() throws Exception {
+        // 44.1 kHz: los bloques de 125 ms no dividen el segundo y cruzan los bordes
+        File wav = tmp.resolve("s.wav").toFile();
+        TestAudio.writeWav(TestAudio.bursts(44100, 7 * 44100 + 777), 44100, wav);
+
+        AcousticAnalysisDTO single = new AcousticService()
+                .getAnalysis(wav, 1, THRESHOLDS, 3, 0.25, AudioRange.FULL);
+        AcousticAnalysisDTO sharded = new ShardCoordinator(new ShardCoordinator.InProcessRunner(), 3)
+                .getAnalysis(wav, 1, THRESHOLDS, 3, 0.25);
+
+        assertFalse(single.getEvents().isEmpty());
+        assertEquals(single.getLeq(), sharded.getLeq(), 0.0);
+        assertEquals(single.getEvents().size(), sharded.getEvents().size());
+        assertEquals(single.getTimeWeighting().getLafMax(), sharded.getTimeWeighting().getLafMax(), 0.0);
+        assertSameAnalysis(single, sharded);
+    }
+
+    @Test
+    void partialsCarryAccumulatorsInsteadOfWindowSpectra() throws Exception {
+        File wav = tmp.resolve("w.wav").toFile();
+        TestAudio.writeWav(TestAudio.bursts(48000, 8 * 48000), 48000, wav);
+
+        // 2 y 6 ventanas de 1 s: cada espectro ocupa 32768 bins, 256 KB
+        ShardAnalyzer analyzer = new ShardAnalyzer();
+        int shortShard = serializedSize(analyzer.analyze(new ShardTask(wav, 0, 2 * 48000, 1, null)));
+        int longShard = serializedSize(analyzer.analyze(new ShardTask(wav, 2 * 48000, 8 * 48000, 1, null)));
+        assertTrue(longShard - shortShard < 32768 * 8,
+                "El estado del fragmento crece con sus ventanas: " + shortShard + " -> " + longShard);
+    }
+
+    @Test
+    void mismatchedBoundaryStateRerunsTheShard() throws Exception {
+        File wav = tmp.resolve("m.wav").toFile();
+        TestAudio.writeWav(TestAudio.bursts(48000, 5 * 48000), 48000, wav);
+
+        // Sin pre-roll el estado inicial de cada fragmento no coincide: se repiten con el exacto
+        AtomicInteger runs = new AtomicInteger();
+        ShardAnalyzer analyzer = new ShardAnalyzer(0);
+        ShardCoordinator.ShardRunner runner = task -> {
+            runs.incrementAndGet();
+            return analyzer.analyze(task);
+        };
+        AcousticAnalysisDTO sharded = new ShardCoordinator(runner, 4).getAnalysis(wav, 1, THRESHOLDS, 3, 0.25);
+        AcousticAnalysisDTO single = new AcousticService()
+                .getAnalysis(wav, 1, THRESHOLDS, 3, 0.25, AudioRange.FULL);
+
+        assertEquals(7, runs.get());
+        assertSameAnalysis(single, sharded);
+    }
+
+    @Test
+    void workerProcessesGiveTheSameResult() throws Exception {
+        File wav = tmp.resolve("p.wav").toFile();
+        TestAudio.writeWav(TestAudio.bursts(48000, 4 * 48000 + 100), 48000, wav);
+
+        AcousticAnalysisDTO sharded = new ShardCoordinator(new ShardCoordinator.LocalProcessRunner(), 2)
+                .getAnalysis(wav, 1, THRESHOLDS, 3, 0.25);
+        AcousticAnalysisDTO single = new AcousticService()
+                .getAnalysis(wav, 1, THRESHOLDS, 3, 0.25, AudioRange.FULL);
+
+        assertSameAnalysis(single, sharded);
+    }
+
+    @Test
+    void boundsConcurrentShardsAndInterruptsThemOnFailure() throws Exception {
+        File wav = tmp.resolve("c.wav").toFile();
+        TestAudio.writeWav(TestAudio.bursts(48000, 6 * 48000), 48000, wav);
+
+        // 6 fragmentos con a lo sumo 2 a la vez
+        ShardAnalyzer analyzer = new ShardAnalyzer();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ShardCoordinator.ShardRunner counting = task -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+                return analyzer.analyze(task);
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+        new ShardCoordinator(counting, 6, 2).getAnalysis(wav, 1, THRESHOLDS, 3, 0.25);
+        assertEquals(2, maxRunning.get());
+
+        // Si un fragmento falla, los que siguen en curso se interrumpen
+        CountDownLatch others = new CountDownLatch(2);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ShardCoordinator.ShardRunner failing = task -> {
+            if (task.getFirstFrame() == 0) {
+                // Falla cuando los otros dos ya están en curso
+                others.await(5, TimeUnit.SECONDS);
+                throw new IOException("worker caído");
+            }
+            others.countDown();
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return null;
+        };
+        assertThrows(IOException.class,
+                () -> new ShardCoordinator(failing, 3, 3).getAnalysis(wav, 1, THRESHOLDS, 3, 0.25));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    // Espectro y descriptores se suman por fragmento y coinciden salvo redondeo; el resto del
+    // resultado es idéntico bit a bit. El análisis por fragmentos no trae espectrograma
+    private static void assertSameAnalysis(AcousticAnalysisDTO single, AcousticAnalysisDTO sharded) throws Exception {
+        assertNull(sharded.getSpectrogram());
+        double[] expected = single.getSpectrumPreview();
+        double[] actual = sharded.getSpectrumPreview();
+        assertEquals(expected.length, actual.length);
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(expected[k], actual[k], 1e-9 * Math.abs(expected[k]));
+        }
+        for (String band : single.getOctaveBands().keySet()) {
+            assertEquals(single.getOctaveBands().get(band), sharded.getOctaveBands().get(band), 1e-9);
+        }
+        assertEquals(single.getSpectralCentroid(), sharded.getSpectralCentroid(), 1e-6);
+        assertEquals(single.getSpectralRolloff(), sharded.getSpectralRolloff(), 1e-6);
+        assertEquals(single.getDominantFrequency(), sharded.getDominantFrequency(), 0.0);
+        assertEquals(single.getZeroCrossingRate(), sharded.getZeroCrossingRate(), 0.0);
+
+        single.setSpectrogram(null);
+        single.setSpectrumPreview(actual);
+        single.setOctaveBands(sharded.getOctaveBands());
+        single.setSpectralCentroid(sharded.getSpectralCentroid());
+        single.setSpectralRolloff(sharded.getSpectralRolloff());
+        assertArrayEquals(encode(single), encode(sharded));
+    }
+
+    private static int serializedSize(AnalysisPartial partial) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        partial.write(new DataOutputStream(out));
+        return out.size();
+    }
+
+    private static byte[] encode(AcousticAnalysisDTO dto) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultArchiveCodec.write(dto, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,74 @@
+package com.ud.metricssoundscalculator.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparación escalar vs Vector API sobre 60 s de audio a 48 kHz.
+ * Ejecutar con: mvn -Pbench test-compile exec:exec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class SignalKernelsBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String impl;
+
+    private SignalKernels kernels;
+    private double[] signal;
+    private float[] floats;
+    private double[] levels;
+
+    @Setup
+    public void setup() {
+        kernels = impl.equals("scalar") ? new ScalarKernels() : new VectorKernels();
+
+        Random random = new Random(1);
+        signal = new double[60 * 48000];
+        for (int i = 0; i < signal.length; i++) signal[i] = random.nextGaussian() * 0.1;
+        floats = new float[signal.length];
+        levels = new double[signal.length / 6000];
+    }
+
+    @Benchmark
+    public double sumOfSquares() {
+        return kernels.sumOfSquares(signal, 0, signal.length);
+    }
+
+    @Benchmark
+    public double lmaxLmin() {
+        return 20 * Math.log10(kernels.maxAbs(signal, 0, signal.length) + 1e-12)
+                - 20 * Math.log10(kernels.minAbs(signal, 0, signal.length) + 1e-12);
+    }
+
+    // Bucle original de computeLmaxLmin (log10 por muestra), como referencia
+    @Benchmark
+    public double lmaxLminPerSampleLog() {
+        double lmax = Double.NEGATIVE_INFINITY;
+        double lmin = Double.POSITIVE_INFINITY;
+        for (double sample : signal) {
+            double db = 20 * Math.log10(Math.abs(sample) + 1e-12);
+            if (db > lmax) lmax = db;
+            if (db < lmin) lmin = db;
+        }
+        return lmax - lmin;
+    }
+
+    @Benchmark
+    public double[] blockLevels125ms() {
+        kernels.blockLevelsDb(signal, 6000, levels);
+        return levels;
+    }
+
+    @Benchmark
+    public float[] toFloat() {
+        kernels.toFloat(signal, floats, signal.length);
+        return floats;
+    }
+}
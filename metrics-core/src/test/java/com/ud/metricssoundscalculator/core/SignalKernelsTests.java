@@ -0,0 +1,48 @@
+package com.ud.metricssoundscalculator.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignalKernelsTests {
+
+    @Test
+    void selectedKernelsMatchScalarReference() {
+        SignalKernels kernels = SignalKernels.get();
+        ScalarKernels scalar = new ScalarKernels();
+
+        // Longitud impar para cubrir la cola escalar de la versión vectorial
+        Random random = new Random(3);
+        double[] signal = new double[48000 + 13];
+        for (int i = 0; i < signal.length; i++) signal[i] = random.nextGaussian() * 0.2;
+
+        double expected = scalar.sumOfSquares(signal, 5, signal.length - 3);
+        assertEquals(expected, kernels.sumOfSquares(signal, 5, signal.length - 3), expected * 1e-12);
+        assertEquals(scalar.maxAbs(signal, 1, signal.length), kernels.maxAbs(signal, 1, signal.length), 0.0);
+        assertEquals(scalar.minAbs(signal, 1, signal.length), kernels.minAbs(signal, 1, signal.length), 0.0);
+
+        double[] a = new double[8];
+        double[] b = new double[8];
+        scalar.blockLevelsDb(signal, 6000, a);
+        kernels.blockLevelsDb(signal, 6000, b);
+        assertArrayEquals(a, b, 1e-9);
+
+        float[] f1 = new float[signal.length];
+        float[] f2 = new float[signal.length];
+        scalar.toFloat(signal, f1, signal.length);
+        kernels.toFloat(signal, f2, signal.length);
+        double[] d1 = new double[signal.length];
+        double[] d2 = new double[signal.length];
+        scalar.toDouble(f1, d1, f1.length);
+        kernels.toDouble(f2, d2, f2.length);
+        assertArrayEquals(d1, d2, 0.0);
+    }
+
+    @Test
+    void vectorKernelsAreSelectedWhenModuleIsPresent() {
+        boolean vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(vectorModule, SignalKernels.get().name().startsWith("vector"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpectralFeaturesTests {
+
+    private static final int FS = 48000;
+    private static final int WINDOW = 8192;
+
+    @TempDir
+    Path tmp;
+
+    // Seno con un número entero de periodos por ventana: toda la energía cae en un bin
+    private static double[] tone(int bin, int length) {
+        double[] x = new double[length];
+        for (int i = 0; i < length; i++) x[i] = 0.5 * Math.sin(2 * Math.PI * bin * i / WINDOW);
+        return x;
+    }
+
+    @Test
+    void pureToneGivesItsFrequencyAndZeroCrossingRate() {
+        int bin = 171;
+        double hz = (double) bin * FS / WINDOW; // ≈ 1002 Hz
+        CorrectionService correctionService = new CorrectionService();
+
+        SpectralFeatures features = new SpectralFeatures(FS);
+        double[] signal = tone(bin, 4 * WINDOW);
+        for (int f = 0; f < 4; f++) {
+            double[] segment = Arrays.copyOfRange(signal, f * WINDOW, (f + 1) * WINDOW);
+            features.addFrame(correctionService.computeSpectrum(segment, FS), segment);
+        }
+        features.addEnergy(0.125 * signal.length, signal.length); // seno de amplitud 0.5
+        AcousticAnalysisDTO dto = new AcousticAnalysisDTO();
+        features.fill(dto);
+
+        double binHz = (double) FS / WINDOW;
+        assertEquals(hz, dto.getDominantFrequency(), 1e-9);
+        assertEquals(hz, dto.getSpectralRolloff(), 1e-9);
+        assertEquals(hz, dto.getSpectralCentroid(), binHz);
+        // Dos cruces por periodo
+        assertEquals(2 * hz / FS, dto.getZeroCrossingRate(), 1e-3);
+        assertEquals(20 * Math.log10(Math.sqrt(0.125)), dto.getDbfs(), 1e-12);
+    }
+
+    @Test
+    void silenceReturnsDefaults() {
+        SpectralFeatures features = new SpectralFeatures(FS);
+        double[] zeros = new double[WINDOW];
+        features.addFrame(new CorrectionService().computeSpectrum(zeros, FS), zeros);
+        features.addEnergy(0, zeros.length);
+
+        AcousticAnalysisDTO dto = new AcousticAnalysisDTO();
+        features.fill(dto);
+
+        assertEquals(-100.0, dto.getDbfs());
+        assertEquals(0.0, dto.getRmsEnergy());
+        assertEquals(0.0, dto.getDominantFrequency());
+        assertEquals(0.0, dto.getSpectralCentroid());
+        assertEquals(0.0, dto.getSpectralRolloff());
+        assertEquals(0.0, dto.getZeroCrossingRate());
+    }
+
+    // Tono con un número entero de periodos en 65536 muestras, la FFT de 1,37 s sin relleno
+    private static short[] binTone(int bin, double amplitude) {
+        return TestAudio.toneWithNoise(FS, 65536, (double) bin * FS / 65536, amplitude, 0);
+    }
+
+    @Test
+    void signalShorterThanAWindowUsesTheWholeSignal() throws Exception {
+        // 1,37 s con ventanas de 2 s: no hay tramas en el espectrograma
+        File wav = tmp.resolve("short.wav").toFile();
+        TestAudio.writeWav(binTone(1365, 0.9), FS, wav);
+        double hz = 1365.0 * FS / 65536; // ≈ 999.8 Hz
+
+        AcousticAnalysisDTO dto = new AcousticService().getAnalysis(wav, 2, List.of(65.0), 3, 1, AudioRange.FULL);
+
+        assertEquals(0, dto.getSpectrogram().length);
+        assertEquals(hz, dto.getDominantFrequency(), 1e-9);
+        assertEquals(hz, dto.getSpectralRolloff(), 1e-9);
+        // El ruido de cuantización de 16 bits, repartido en 32768 bins, sube el centroide unos 15 Hz
+        assertEquals(hz, dto.getSpectralCentroid(), 20);
+        // Cruces contados sobre toda la señal: 2 por periodo
+        assertEquals(2 * hz / FS, dto.getZeroCrossingRate(), 1e-4);
+        assertEquals(20 * Math.log10(0.9 / Math.sqrt(2)), dto.getDbfs(), 1e-3);
+    }
+
+    @Test
+    void featuresUseTheUnweightedMonoMix() throws Exception {
+        // Izquierdo ≈ 1 kHz a 0.6 y derecho ≈ 4 kHz a 0.3: la mezcla a mono los deja a 0.3 y 0.15
+        File wav = tmp.resolve("stereo.wav").toFile();
+        short[] left = binTone(1365, 0.6);
+        short[] right = binTone(5461, 0.3);
+        short[] pcm = new short[2 * left.length];
+        for (int i = 0; i < left.length; i++) {
+            pcm[2 * i] = left[i];
+            pcm[2 * i + 1] = right[i];
+        }
+        TestAudio.writeWav(pcm, FS, 2, wav);
+        double low = 1365.0 * FS / 65536;
+        double high = 5461.0 * FS / 65536;
+
+        AcousticAnalysisDTO dto = new AcousticService().getAnalysis(wav, 2, List.of(65.0), 3, 1, AudioRange.FULL);
+
+        // Sin ponderación A el tono grave domina; el rolloff (85 %) necesita también el agudo
+        assertEquals(low, dto.getDominantFrequency(), 1e-9);
+        assertEquals(high, dto.getSpectralRolloff(), 1e-9);
+        assertEquals((2 * low + high) / 3, dto.getSpectralCentroid(), 30);
+        // Media de cuadrados de la mezcla: (0.3² + 0.15²) / 2
+        assertEquals(10 * Math.log10((0.09 + 0.0225) / 2), dto.getDbfs(), 1e-3);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ud.metricssoundscalculator.core;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Señales sintéticas y escritura de WAV compartidas por las pruebas del núcleo.
+ */
+final class TestAudio {
+
+    private TestAudio() {
+    }
+
+    // Seno con ruido gaussiano (semilla fija), en PCM de 16 bits
+    static short[] toneWithNoise(int fs, int length, double hz, double amplitude, double noise) {
+        Random random = new Random(7);
+        short[] pcm = new short[length];
+        for (int i = 0; i < length; i++) {
+            pcm[i] = toPcm(amplitude * Math.sin(2 * Math.PI * hz * i / fs) + noise * random.nextGaussian());
+        }
+        return pcm;
+    }
+
+    // Ruido de fondo con ráfagas de 1 kHz que cruzan los bordes de los segundos
+    static short[] bursts(int fs, int length) {
+        Random random = new Random(7);
+        short[] pcm = new short[length];
+        for (int i = 0; i < length; i++) {
+            double t = (double) i / fs;
+            double amplitude = (t % 2.0) > 1.6 || (t % 2.0) < 0.3 ? 0.6 : 0.02;
+            pcm[i] = toPcm(amplitude * Math.sin(2 * Math.PI * 1000 * t) + 0.01 * random.nextGaussian());
+        }
+        return pcm;
+    }
+
+    static short toPcm(double x) {
+        return (short) (Math.max(-1, Math.min(1, x)) * Short.MAX_VALUE);
+    }
+
+    // WAV mono de 16 bits little-endian
+    static void writeWav(short[] pcm, int fs, File file) throws Exception {
+        writeWav(pcm, fs, 1, file);
+    }
+
+    // WAV de 16 bits little-endian con las muestras de los canales intercaladas
+    static void writeWav(short[] pcm, int fs, int channels, File file) throws Exception {
+        byte[] bytes = new byte[pcm.length * 2];
+        for (int i = 0; i < pcm.length; i++) {
+            bytes[2 * i] = (byte) pcm[i];
+            bytes[2 * i + 1] = (byte) (pcm[i] >> 8);
+        }
+        AudioFormat format = new AudioFormat(fs, 16, channels, true, false);
+        try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(bytes), format, pcm.length / channels)) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, file);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ud.metricssoundscalculator.core;
+
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+import com.ud.metricssoundscalculator.dto.TimeWeightingDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeWeightingTests {
+
+    private static final int FS = 48000;
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void steadyToneSettlesOnItsMeanSquare() {
+        // Seno de 1 kHz, amplitud 1 → energía media 0.5 (-3.01 dBFS, 90.97 dB)
+        double[] signal = new double[FS * 10];
+        for (int i = 0; i < signal.length; i++) signal[i] = Math.sin(2 * Math.PI * 1000 * i / FS);
+
+        TimeWeighting tw = new TimeWeighting(FS, signal.length).process(signal);
+        double expected = SoundLevels.fromMeanSquare(0.5);
+
+        assertEquals(expected, tw.getLasMax(), 0.1);
+        assertEquals(expected, tw.getLasMin(), 0.1);
+        assertEquals(expected, tw.getLafMin(), 0.1);
+        assertEquals(80, tw.getFastSeries().length);
+    }
+
+    @Test
+    void shortBurstReadsHigherOnFasterDetectors() {
+        // 2 s de silencio con una ráfaga de 50 ms en el medio
+        double[] signal = new double[FS * 2];
+        for (int i = FS; i < FS + FS / 20; i++) signal[i] = 1.0;
+
+        TimeWeighting tw = new TimeWeighting(FS, signal.length).process(signal);
+
+        assertTrue(tw.getLaiMax() > tw.getLafMax());
+        assertTrue(tw.getLafMax() > tw.getLasMax());
+        // Slow no llega a asentarse en 2 s (5τ = 5 s)
+        assertTrue(Double.isNaN(tw.getLasMin()));
+    }
+
+    @Test
+    void blockwiseProcessingMatchesSinglePass() {
+        double[] signal = new double[FS * 3];
+        for (int i = 0; i < signal.length; i++) signal[i] = Math.sin(i * 0.01) * (i % 7000 < 3000 ? 1 : 0.1);
+
+        TimeWeighting whole = new TimeWeighting(FS, signal.length).process(signal);
+        TimeWeighting blocks = new TimeWeighting(FS, 0);
+        for (int from = 0; from < signal.length; from += 1000) {
+            blocks.process(signal, from, Math.min(from + 1000, signal.length));
+        }
+
+        assertEquals(whole.getLafMax(), blocks.getLafMax(), 0.0);
+        assertEquals(whole.getLaiMin(), blocks.getLaiMin(), 0.0);
+        assertArrayEquals(whole.getFastSeries(), blocks.getFastSeries(), 0.0);
+    }
+
+    @Test
+    void stereoUsesTheSameTimeConstantsAsMono() {
+        double[] mono = new double[FS * 3];
+        for (int i = 0; i < mono.length; i++) mono[i] = Math.sin(i * 0.01) * (i % 7000 < 3000 ? 1 : 0.1);
+        // Los dos canales iguales: cada trama tiene la energía del canal mono
+        double[] stereo = new double[2 * mono.length];
+        for (int i = 0; i < mono.length; i++) {
+            stereo[2 * i] = mono[i];
+            stereo[2 * i + 1] = mono[i];
+        }
+
+        TimeWeighting one = new TimeWeighting(FS, mono.length).process(mono);
+        TimeWeighting two = new TimeWeighting(FS, 2, stereo.length).process(stereo);
+
+        assertEquals(one.getLafMax(), two.getLafMax(), 0.0);
+        assertEquals(one.getLasMin(), two.getLasMin(), 0.0);
+        assertArrayEquals(one.getImpulseSeries(), two.getImpulseSeries(), 0.0);
+        assertEquals(24, two.getFastSeries().length); // 3 s / 125 ms, no 6 s
+    }
+
+    @Test
+    void maximaAreNotBelowTheLeq() throws Exception {
+        File wav = tmp.resolve("bursts.wav").toFile();
+        TestAudio.writeWav(TestAudio.bursts(FS, 8 * FS), FS, wav);
+
+        AcousticAnalysisDTO dto = new AcousticService().getAnalysis(wav, 1, List.of(65.0), 3, 1, AudioRange.FULL);
+        TimeWeightingDTO tw = dto.getTimeWeighting();
+
+        // Misma referencia que el Leq: un máximo ponderado en el tiempo no puede quedar por debajo
+        assertTrue(tw.getLafMax() >= dto.getLeq());
+        assertTrue(tw.getLasMax() >= dto.getLeq());
+        assertTrue(tw.getLaiMax() >= tw.getLafMax());
+        // Las ráfagas superan el Leq en varios dB; el fondo queda por debajo
+        assertTrue(tw.getLafMax() - dto.getLeq() > 3);
+        assertTrue(tw.getLafMin() < dto.getLeq());
+    }
+}
@@ -0,0 +1,24 @@
+package com.ud.metricssoundscalculator.config;
+
+import com.ud.metricssoundscalculator.core.AcousticService;
+import com.ud.metricssoundscalculator.core.FlacService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Expone como beans las clases del núcleo de análisis (módulo metrics-core),
+ * que no dependen de Spring.
+ */
+@Configuration
+public class AnalysisConfig {
+
+    @Bean
+    public AcousticService acousticService() {
+        return new AcousticService();
+    }
+
+    @Bean
+    public FlacService flacService() {
+        return new FlacService();
+    }
+}
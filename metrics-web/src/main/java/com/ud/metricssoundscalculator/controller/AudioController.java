@@ -0,0 +1,302 @@
+package com.ud.metricssoundscalculator.controller;
+
+import com.ud.metricssoundscalculator.dto.*;
+
+import com.ud.metricssoundscalculator.core.AcousticService;
+import com.ud.metricssoundscalculator.core.AudioRange;
+import com.ud.metricssoundscalculator.service.AdmissionService;
+import com.ud.metricssoundscalculator.service.AdmissionService.AdmissionRejectedException;
+import com.ud.metricssoundscalculator.service.AdmissionService.Reservation;
+import com.ud.metricssoundscalculator.service.ResultArchiveService;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/audio")
+@CrossOrigin(origins = "*")
+public class AudioController {
+
+    private final AcousticService acousticService;
+    private final AdmissionService admissionService;
+    private final ResultArchiveService resultArchiveService;
+
+    public AudioController(AcousticService acousticService, AdmissionService admissionService,
+                           ResultArchiveService resultArchiveService) {
+        this.acousticService = acousticService;
+        this.admissionService = admissionService;
+        this.resultArchiveService = resultArchiveService;
+    }
+
+    // 0. Todas las estadísticas
+    @PostMapping(
+            value = "/analyze",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<AcousticAnalysisDTO> analyzeAudio(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "windowSec", defaultValue = "60") int windowSec,
+            @RequestParam(value = "thresholds", defaultValue = "65,70") List<Double> thresholds,
+            @RequestParam(value = "hysteresisDb", defaultValue = "3") double hysteresisDb,
+            @RequestParam(value = "minEventSec", defaultValue = "1") double minEventSec,
+            @RequestParam(value = "start", required = false) Double start,
+            @RequestParam(value = "end", required = false) Double end,
+            @RequestParam(value = "recordedAt", required = false) Instant recordedAt
+    ) {
+        try {
+            AudioRange range = AudioRange.of(start, end);
+
+            // Crear archivo temporal (el hash se calcula durante la copia)
+            File tempFile = File.createTempFile("upload_", ".wav");
+            String contentHash = resultArchiveService.transferAndHash(file, tempFile);
+
+            // Reservar memoria según la cabecera antes de decodificar
+            AcousticAnalysisDTO analysis;
+            try (Reservation reservation = admissionService.reserveAnalysis(tempFile, range, windowSec)) {
+                // Usamos el método unificado
+                analysis = acousticService.getAnalysis(tempFile, windowSec, thresholds, hysteresisDb, minEventSec, range);
+            } finally {
+                tempFile.delete();
+            }
+            // Se archiva en segundo plano, fuera del camino de la respuesta. Sin fecha
+            // explícita se toma la del nombre de la grabadora; si no hay, queda sin fecha
+            AnalysisParamsDTO params = new AnalysisParamsDTO();
+            params.setWindowSec(windowSec);
+            params.setThresholds(thresholds);
+            params.setHysteresisDb(hysteresisDb);
+            params.setMinEventSec(minEventSec);
+            params.setStart(start);
+            params.setEnd(end);
+            resultArchiveService.submit(analysis, contentHash, params, file.getOriginalFilename(),
+                    recordedAt != null ? recordedAt : resultArchiveService.parseRecordedAt(file.getOriginalFilename()));
+
+            return ResponseEntity.ok(analysis);
+
+        } catch (AdmissionRejectedException e) {
+            return rejected();
+        } catch (IllegalArgumentException e) {
+            // Tramo inválido o fuera del archivo
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // 1. Histograma
+    @PostMapping(
+            value = "/histogram",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<HistogramDTO> getHistogram(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "start", required = false) Double start,
+            @RequestParam(value = "end", required = false) Double end) {
+        try {
+            AudioRange range = AudioRange.of(start, end);
+            File tempFile = File.createTempFile("upload_", ".wav");
+            file.transferTo(tempFile);
+
+            HistogramDTO dto;
+            try (Reservation reservation = admissionService.reserve(tempFile, range, false)) {
+                dto = acousticService.getHistogram(tempFile, range);
+            } finally {
+                tempFile.delete();
+            }
+            return ResponseEntity.ok(dto);
+        } catch (AdmissionRejectedException e) {
+            return rejected();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // 2. Espectrograma
+    @PostMapping(
+            value = "/spectrogram",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<SpectrogramDTO> getSpectrogram(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "1") int windowSec,
+            @RequestParam(value = "start", required = false) Double start,
+            @RequestParam(value = "end", required = false) Double end) {
+        try {
+            AudioRange range = AudioRange.of(start, end);
+            File tempFile = File.createTempFile("upload_", ".wav");
+            file.transferTo(tempFile);
+
+            SpectrogramDTO dto;
+            try (Reservation reservation = admissionService.reserve(tempFile, range, false)) {
+                dto = acousticService.getSpectrogram(tempFile, windowSec, range);
+            } finally {
+                tempFile.delete();
+            }
+            return ResponseEntity.ok(dto);
+        } catch (AdmissionRejectedException e) {
+            return rejected();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // 3. Serie temporal de Leq
+    @PostMapping(
+            value = "/leq-series",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<LeqSeriesDTO> getLeqSeries(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "60") int windowSec,
+            @RequestParam(value = "start", required = false) Double start,
+            @RequestParam(value = "end", required = false) Double end) {
+        try {
+            AudioRange range = AudioRange.of(start, end);
+            File tempFile = File.createTempFile("upload_", ".wav");
+            file.transferTo(tempFile);
+
+            LeqSeriesDTO dto;
+            try (Reservation reservation = admissionService.reserve(tempFile, range, false)) {
+                dto = acousticService.getLeqSeries(tempFile, windowSec, range);
+            } finally {
+                tempFile.delete();
+            }
+            return ResponseEntity.ok(dto);
+        } catch (AdmissionRejectedException e) {
+            return rejected();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // 4. Bandas de octava
+    @PostMapping(
+            value = "/octave-bands",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<OctaveBandsDTO> getOctaveBands(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "start", required = false) Double start,
+            @RequestParam(value = "end", required = false) Double end) {
+        try {
+            AudioRange range = AudioRange.of(start, end);
+            File tempFile = File.createTempFile("upload_", ".wav");
+            file.transferTo(tempFile);
+
+            OctaveBandsDTO dto;
+            try (Reservation reservation = admissionService.reserve(tempFile, range, true)) {
+                dto = acousticService.getOctaveBands(tempFile, range);
+            } finally {
+                tempFile.delete();
+            }
+            return ResponseEntity.ok(dto);
+        } catch (AdmissionRejectedException e) {
+            return rejected();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // 5. Eventos de ruido y tiempo sobre umbrales
+    @PostMapping(
+            value = "/events",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<NoiseEventsDTO> getEvents(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "65,70") List<Double> thresholds,
+            @RequestParam(defaultValue = "3") double hysteresisDb,
+            @RequestParam(defaultValue = "1") double minEventSec,
+            @RequestParam(value = "start", required = false) Double start,
+            @RequestParam(value = "end", required = false) Double end) {
+        try {
+            AudioRange range = AudioRange.of(start, end);
+            File tempFile = File.createTempFile("upload_", ".wav");
+            file.transferTo(tempFile);
+
+            NoiseEventsDTO dto;
+            try (Reservation reservation = admissionService.reserve(tempFile, range, false)) {
+                dto = acousticService.getEvents(tempFile, thresholds, hysteresisDb, minEventSec, range);
+            } finally {
+                tempFile.delete();
+            }
+            return ResponseEntity.ok(dto);
+        } catch (AdmissionRejectedException e) {
+            return rejected();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // 6. Ponderación temporal Fast/Slow/Impulse
+    @PostMapping(
+            value = "/time-weighting",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<TimeWeightingDTO> getTimeWeighting(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "start", required = false) Double start,
+            @RequestParam(value = "end", required = false) Double end) {
+        try {
+            AudioRange range = AudioRange.of(start, end);
+            File tempFile = File.createTempFile("upload_", ".wav");
+            file.transferTo(tempFile);
+
+            TimeWeightingDTO dto;
+            try (Reservation reservation = admissionService.reserveTimeWeighting(tempFile, range)) {
+                dto = acousticService.getTimeWeighting(tempFile, range);
+            } finally {
+                tempFile.delete();
+            }
+            return ResponseEntity.ok(dto);
+        } catch (AdmissionRejectedException e) {
+            return rejected();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // 7. Estado del control de admisión por memoria
+    @GetMapping(value = "/admission", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AdmissionStatsDTO> getAdmissionStats() {
+        return ResponseEntity.ok(admissionService.getStats());
+    }
+
+    private <T> ResponseEntity<T> rejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "10")
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.ud.metricssoundscalculator.controller;
+
+import com.ud.metricssoundscalculator.service.LiveMonitorService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/live")
+@CrossOrigin(origins = "*")
+public class LiveController {
+
+    private final LiveMonitorService liveMonitorService;
+
+    public LiveController(LiveMonitorService liveMonitorService) {
+        this.liveMonitorService = liveMonitorService;
+    }
+
+    // 0. Ingesta continua de PCM crudo (little-endian con signo, transferencia chunked)
+    @PostMapping(
+            value = "/{stationId}/ingest",
+            consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<Map<String, Object>> ingest(
+            @PathVariable String stationId,
+            @RequestParam(defaultValue = "48000") int sampleRate,
+            @RequestParam(defaultValue = "1") int channels,
+            @RequestParam(defaultValue = "16") int bitsPerSample,
+            HttpServletRequest request) {
+        try {
+            double seconds = liveMonitorService.ingest(
+                    stationId, request.getInputStream(), sampleRate, channels, bitsPerSample);
+            return ResponseEntity.ok(Map.of("stationId", stationId, "seconds", seconds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            // Otra grabadora ya está enviando a esta estación
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // 1. Suscripción SSE a niveles Fast (125 ms) y Leq acumulado
+    @GetMapping(value = "/{stationId}/levels", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> levels(@PathVariable String stationId) {
+        try {
+            return ResponseEntity.ok(liveMonitorService.subscribe(stationId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // 2. Historial reciente de niveles Fast
+    @GetMapping(value = "/{stationId}/recent", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<double[]> recent(@PathVariable String stationId) {
+        try {
+            return ResponseEntity.ok(liveMonitorService.getRecentLevels(stationId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
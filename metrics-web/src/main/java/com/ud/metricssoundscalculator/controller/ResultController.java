@@ -0,0 +1,54 @@
+package com.ud.metricssoundscalculator.controller;
+
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+import com.ud.metricssoundscalculator.dto.ResultEntryDTO;
+import com.ud.metricssoundscalculator.service.ResultArchiveService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/results")
+@CrossOrigin(origins = "*")
+public class ResultController {
+
+    private final ResultArchiveService resultArchiveService;
+
+    public ResultController(ResultArchiveService resultArchiveService) {
+        this.resultArchiveService = resultArchiveService;
+    }
+
+    // 0. Resultados archivados por fecha de grabación [from, to)
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ResultEntryDTO>> find(
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        return ResponseEntity.ok(resultArchiveService.find(from, to));
+    }
+
+    // 1. Análisis completo archivado, por identificador (hash del audio + parámetros)
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AcousticAnalysisDTO> load(@PathVariable String id) {
+        try {
+            return ResponseEntity.of(resultArchiveService.load(id));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // 2. Entrada del índice (fecha, parámetros, nombre y tamaño) sin cargar el resultado
+    @GetMapping(value = "/{id}/entry", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultEntryDTO> entry(@PathVariable String id) {
+        return ResponseEntity.of(resultArchiveService.getEntry(id));
+    }
+
+    // 3. Resultados de un mismo audio con distintos parámetros
+    @GetMapping(value = "/audio/{contentHash}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ResultEntryDTO>> byAudio(@PathVariable String contentHash) {
+        return ResponseEntity.ok(resultArchiveService.findByContentHash(contentHash));
+    }
+}
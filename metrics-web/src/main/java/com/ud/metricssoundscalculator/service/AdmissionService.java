@@ -0,0 +1,263 @@
+package com.ud.metricssoundscalculator.service;
+
+import com.ud.metricssoundscalculator.core.AudioRange;
+import com.ud.metricssoundscalculator.core.FlacService;
+import com.ud.metricssoundscalculator.core.TimeWeighting;
+import com.ud.metricssoundscalculator.dto.AdmissionStatsDTO;
+import org.jflac.metadata.StreamInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import java.io.File;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Control de admisión por memoria: antes de decodificar un archivo se estima su
+ * costo en heap a partir de la cabecera WAV y se reserva del presupuesto.
+ * Si no hay presupuesto la petición espera en cola hasta el timeout y luego se rechaza.
+ */
+@Service
+public class AdmissionService {
+
+    // El semáforo cuenta KiB para no desbordar int con presupuestos grandes
+    private static final int UNIT = 1024;
+
+    private final FlacService flacService;
+
+    private final long budgetBytes;
+    private final long queueTimeoutMs;
+    private final Semaphore permits;
+
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong admittedTotal = new AtomicLong();
+    private final AtomicLong rejectedTotal = new AtomicLong();
+
+    public AdmissionService(FlacService flacService,
+                            @Value("${audio.admission.memory-budget-mb:512}") long budgetMb,
+                            @Value("${audio.admission.queue-timeout-ms:30000}") long queueTimeoutMs) {
+        this.flacService = flacService;
+        this.budgetBytes = budgetMb * 1024 * 1024;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.permits = new Semaphore((int) (budgetBytes / UNIT), true);
+    }
+
+    /**
+     * Estima el costo en heap de analizar el archivo:
+     * bytes decodificados + señal cruda y ponderada en double[],
+     * más los buffers de la FFT de longitud completa si se calcula el espectro global.
+     * Para FLAC solo se cuenta la señal ponderada, que se escribe trama a trama.
+     */
+    public long estimateBytes(File wavFile, boolean fullSpectrum) throws Exception {
+        return estimateBytes(wavFile, AudioRange.FULL, fullSpectrum);
+    }
+
+    /**
+     * Igual que {@link #estimateBytes(File, boolean)}, pero solo para las tramas del tramo pedido.
+     */
+    public long estimateBytes(File wavFile, AudioRange range, boolean fullSpectrum) throws Exception {
+        Footprint footprint = footprint(wavFile, range);
+        return footprint.bytes + spectrumBytes(footprint.samples, fullSpectrum);
+    }
+
+    /**
+     * Costo del análisis completo (/analyze): la señal, su mezcla a mono para los
+     * descriptores espectrales, las series de ponderación temporal, una FFT del tamaño de
+     * la ventana y el espectrograma. Solo una señal más corta que la ventana usa la FFT completa.
+     */
+    public long estimateAnalysisBytes(File wavFile, AudioRange range, int windowSec) throws Exception {
+        Footprint footprint = footprint(wavFile, range);
+        long base = footprint.bytes + footprint.monoBytes + timeWeightingBytes(footprint);
+        long window = (long) footprint.sampleRate * windowSec;
+        if (window <= 0 || footprint.samples < window) {
+            return base + spectrumBytes(footprint.samples, true);
+        }
+        long frames = footprint.samples / window;
+        long bins = fftSize(window) / 2;
+        // segmento copiado + buffers de la FFT + double[bins] por trama
+        return base + window * Double.BYTES + spectrumBytes(window, true) + frames * bins * Double.BYTES;
+    }
+
+    /**
+     * Costo de /time-weighting: la señal y las series Fast/Slow/Impulse.
+     */
+    public long estimateTimeWeightingBytes(File wavFile, AudioRange range) throws Exception {
+        Footprint footprint = footprint(wavFile, range);
+        return footprint.bytes + timeWeightingBytes(footprint);
+    }
+
+    // Tres series de medias de cuadrados, un valor cada 125 ms, más sus copias en dB del DTO
+    private static long timeWeightingBytes(Footprint footprint) {
+        long step = Math.max(1, (long) (TimeWeighting.SERIES_MS / 1000.0 * footprint.sampleRate));
+        long values = Math.max(1, footprint.samples / footprint.channels / step);
+        return 2 * 3 * values * Double.BYTES;
+    }
+
+    private Footprint footprint(File wavFile, AudioRange range) throws Exception {
+        if (flacService.isFlac(wavFile)) {
+            StreamInfo info = flacService.readStreamInfo(wavFile);
+            long frames = info.getTotalSamples() > 0
+                    ? info.getTotalSamples()
+                    : wavFile.length() * 8 / Math.max(1, info.getBitsPerSample()) * 2 / info.getChannels(); // compresión ~2:1
+            long samples = rangeFrames(range, info.getSampleRate(), frames) * info.getChannels();
+            // Solo la señal ponderada, que se escribe trama a trama, y su mezcla a mono
+            return new Footprint(samples * Double.BYTES, samples, info.getSampleRate(), info.getChannels(),
+                    samples / info.getChannels() * Double.BYTES);
+        }
+
+        AudioFileFormat fileFormat = AudioSystem.getAudioFileFormat(wavFile);
+        AudioFormat format = fileFormat.getFormat();
+
+        long frameLength = fileFormat.getFrameLength();
+        int frameSize = format.getFrameSize();
+        if (frameLength == AudioSystem.NOT_SPECIFIED || frameSize == AudioSystem.NOT_SPECIFIED) {
+            // Sin cabecera fiable: usamos el tamaño del archivo como cota
+            frameSize = Math.max(1, frameSize);
+            frameLength = wavFile.length() / frameSize;
+        }
+
+        long rawBytes = rangeFrames(range, format.getSampleRate(), frameLength) * frameSize;
+        long samples = rawBytes / Math.max(1, format.getSampleSizeInBits() / 8);
+
+        // bytes leídos + señal + señal ponderada; la mezcla a mono de un archivo mono completo
+        // es la propia señal cruda
+        int channels = Math.max(1, format.getChannels());
+        long monoBytes = channels == 1 && range.isFull() ? 0 : samples / channels * Double.BYTES;
+        return new Footprint(rawBytes + 2 * samples * Double.BYTES, samples, (int) format.getSampleRate(), channels,
+                monoBytes);
+    }
+
+    // Memoria de la señal decodificada, antes de los buffers del espectro
+    private static class Footprint {
+        private final long bytes;
+        private final long samples;
+        private final int sampleRate;
+        private final int channels;
+        private final long monoBytes;   // mezcla a mono sin ponderar, solo en /analyze
+
+        private Footprint(long bytes, long samples, int sampleRate, int channels, long monoBytes) {
+            this.bytes = bytes;
+            this.samples = samples;
+            this.sampleRate = sampleRate;
+            this.channels = channels;
+            this.monoBytes = monoBytes;
+        }
+    }
+
+    // Tramas que se decodifican para el tramo; se reserva 1 s como cota del pre-roll del filtro
+    private long rangeFrames(AudioRange range, double frameRate, long totalFrames) {
+        if (range.isFull()) return totalFrames;
+        long from = Math.max(0, range.firstFrame(frameRate) - (long) frameRate);
+        return Math.max(0, range.endFrame(frameRate, totalFrames) - Math.min(from, totalFrames));
+    }
+
+    private long spectrumBytes(long samples, boolean fullSpectrum) {
+        if (!fullSpectrum) return 0;
+        // float[2*fft] + float[fft/2] + double[fft/2]
+        return fftSize(samples) * (2 * Float.BYTES + Float.BYTES / 2 + Double.BYTES / 2);
+    }
+
+    private static long fftSize(long samples) {
+        return Long.highestOneBit(Math.max(1, samples - 1)) << 1;
+    }
+
+    /**
+     * Reserva memoria para analizar el archivo. Bloquea mientras haya cola.
+     *
+     * @throws AdmissionRejectedException si la petición no cabe en el presupuesto
+     *                                    o no se obtuvo a tiempo
+     */
+    public Reservation reserve(File wavFile, boolean fullSpectrum) throws Exception {
+        return reserve(wavFile, AudioRange.FULL, fullSpectrum);
+    }
+
+    public Reservation reserve(File wavFile, AudioRange range, boolean fullSpectrum) throws Exception {
+        return reserve(estimateBytes(wavFile, range, fullSpectrum));
+    }
+
+    public Reservation reserveAnalysis(File wavFile, AudioRange range, int windowSec) throws Exception {
+        return reserve(estimateAnalysisBytes(wavFile, range, windowSec));
+    }
+
+    public Reservation reserveTimeWeighting(File wavFile, AudioRange range) throws Exception {
+        return reserve(estimateTimeWeightingBytes(wavFile, range));
+    }
+
+    public Reservation reserve(long bytes) throws InterruptedException {
+        int units = (int) Math.max(1, (bytes + UNIT - 1) / UNIT);
+
+        if ((long) units * UNIT > budgetBytes) {
+            rejectedTotal.incrementAndGet();
+            throw new AdmissionRejectedException(
+                    "El archivo requiere " + bytes / (1024 * 1024) + " MB y el presupuesto es "
+                            + budgetBytes / (1024 * 1024) + " MB");
+        }
+
+        queued.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(units, queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            queued.decrementAndGet();
+        }
+
+        if (!acquired) {
+            rejectedTotal.incrementAndGet();
+            throw new AdmissionRejectedException("Presupuesto de memoria agotado, reintente más tarde");
+        }
+
+        reservedBytes.addAndGet((long) units * UNIT);
+        active.incrementAndGet();
+        admittedTotal.incrementAndGet();
+        return new Reservation(units);
+    }
+
+    public AdmissionStatsDTO getStats() {
+        AdmissionStatsDTO dto = new AdmissionStatsDTO();
+        dto.setBudgetBytes(budgetBytes);
+        dto.setReservedBytes(reservedBytes.get());
+        dto.setActiveRequests(active.get());
+        dto.setQueuedRequests(queued.get());
+        dto.setAdmittedTotal(admittedTotal.get());
+        dto.setRejectedTotal(rejectedTotal.get());
+        return dto;
+    }
+
+    /**
+     * Reserva activa; se libera al cerrarla (try-with-resources).
+     */
+    public class Reservation implements AutoCloseable {
+        private final int units;
+        private boolean released = false;
+
+        private Reservation(int units) {
+            this.units = units;
+        }
+
+        public long getBytes() {
+            return (long) units * UNIT;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (released) return;
+            released = true;
+            reservedBytes.addAndGet(-(long) units * UNIT);
+            active.decrementAndGet();
+            permits.release(units);
+        }
+    }
+
+    public static class AdmissionRejectedException extends RuntimeException {
+        public AdmissionRejectedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.ud.metricssoundscalculator.service;
+
+import com.ud.metricssoundscalculator.core.LiveSession;
+import com.ud.metricssoundscalculator.dto.LiveLevelDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Service
+public class LiveMonitorService {
+
+    // Historial de niveles que se envía a un suscriptor al conectarse
+    private static final int HISTORY_SEC = 60;
+
+    // Niveles pendientes por suscriptor SSE (8 s); si el cliente no da abasto se descartan los más antiguos
+    private static final int SEND_QUEUE = 8 * 1000 / LiveSession.BLOCK_MS;
+
+    private final Map<String, LiveSession> sessions = new ConcurrentHashMap<>();
+    private final long idleTimeoutMillis;
+
+    // Hilos compartidos por todos los suscriptores SSE: no crecen con el número de conexiones.
+    // Cada suscriptor tiene a lo sumo una tarea encolada, que vacía su propia cola en orden
+    private final ExecutorService sseDispatcher;
+
+    public LiveMonitorService(@Value("${live.idle-timeout-sec:600}") long idleTimeoutSec,
+                              @Value("${live.sse-threads:2}") int sseThreads) {
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSec);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sseDispatcher = new ThreadPoolExecutor(sseThreads, sseThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "live-sse-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Consume un flujo PCM continuo (chunked) de una grabadora y publica
+     * niveles Fast (125 ms) y Leq acumulado a los suscriptores de la estación.
+     * Bloquea hasta que el cliente cierra el flujo. Solo la ingesta crea sesiones.
+     *
+     * @return segundos de audio procesados
+     * @throws IllegalStateException si la estación ya tiene otra grabadora conectada
+     */
+    public double ingest(String stationId, InputStream pcm, int sampleRate, int channels, int bitsPerSample)
+            throws IOException {
+        evictIdleSessions();
+        LiveSession session = sessions.compute(stationId, (id, existing) -> {
+            if (existing != null && existing.hasProducer()) {
+                throw new IllegalStateException("La estación " + id + " ya tiene una grabadora conectada");
+            }
+            LiveSession target = existing;
+            if (existing == null
+                    || existing.getSampleRate() != sampleRate
+                    || existing.getChannels() != channels
+                    || existing.getBitsPerSample() != bitsPerSample) {
+                target = new LiveSession(id, sampleRate, channels, bitsPerSample, HISTORY_SEC);
+                // Conservar los suscriptores si cambia el formato de la grabadora
+                if (existing != null) existing.moveListenersTo(target);
+            }
+            target.attachProducer();
+            return target;
+        });
+
+        try {
+            byte[] buffer = session.getReadBuffer();
+            long bytes = 0;
+            int n;
+            while ((n = pcm.read(buffer)) != -1) {
+                session.process(buffer, n);
+                bytes += n;
+            }
+            return bytes / (double) (bitsPerSample / 8 * channels) / sampleRate;
+        } finally {
+            session.detachProducer();
+        }
+    }
+
+    /**
+     * Registra un listener para los niveles de una estación con sesión activa.
+     * Cada DTO recibido es una copia propia del bloque y puede conservarse.
+     * El listener corre en el hilo de ingesta: no debe bloquear.
+     *
+     * @throws NoSuchElementException si la estación no tiene sesión
+     */
+    public void addListener(String stationId, Consumer<LiveLevelDTO> listener) {
+        session(stationId).addListener(listener);
+    }
+
+    public void removeListener(String stationId, Consumer<LiveLevelDTO> listener) {
+        LiveSession session = sessions.get(stationId);
+        if (session != null) session.removeListener(listener);
+    }
+
+    /**
+     * Suscripción SSE: envía el historial reciente y luego cada nivel Fast.
+     * Los envíos se hacen en los hilos compartidos de despacho, fuera del hilo de ingesta.
+     *
+     * @throws NoSuchElementException si la estación no tiene sesión
+     */
+    public SseEmitter subscribe(String stationId) {
+        LiveSession session = session(stationId);
+        SseEmitter emitter = new SseEmitter(0L); // sin timeout
+        SseSubscriber subscriber = new SseSubscriber(stationId, emitter);
+
+        subscriber.enqueue(SseEmitter.event().name("history").data(session.getRecentLevels()));
+        session.addListener(subscriber);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        return emitter;
+    }
+
+    /**
+     * @throws NoSuchElementException si la estación no tiene sesión
+     */
+    public double[] getRecentLevels(String stationId) {
+        return session(stationId).getRecentLevels();
+    }
+
+    private LiveSession session(String stationId) {
+        evictIdleSessions();
+        LiveSession session = sessions.get(stationId);
+        if (session == null) {
+            throw new NoSuchElementException("La estación " + stationId + " no tiene una sesión activa");
+        }
+        return session;
+    }
+
+    /**
+     * Cierra las sesiones sin grabadora ni datos durante el tiempo configurado y
+     * termina sus suscripciones SSE.
+     */
+    private void evictIdleSessions() {
+        long now = System.currentTimeMillis();
+        List<LiveSession> evicted = new ArrayList<>();
+        for (String id : sessions.keySet()) {
+            // Dentro de computeIfPresent: no compite con una ingesta que se conecta a la misma estación
+            sessions.computeIfPresent(id, (key, session) -> {
+                if (!session.isIdle(now, idleTimeoutMillis)) return session;
+                evicted.add(session);
+                return null;
+            });
+        }
+        for (LiveSession session : evicted) {
+            for (Consumer<LiveLevelDTO> listener : session.removeListeners()) {
+                if (listener instanceof SseSubscriber subscriber) subscriber.complete();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sseDispatcher.shutdownNow();
+    }
+
+    /**
+     * Cola de envío de un suscriptor SSE sobre el despachador compartido.
+     */
+    private final class SseSubscriber implements Consumer<LiveLevelDTO> {
+
+        private final String stationId;
+        private final SseEmitter emitter;
+        private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean scheduled = false;
+        private boolean closed = false;
+
+        SseSubscriber(String stationId, SseEmitter emitter) {
+            this.stationId = stationId;
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void accept(LiveLevelDTO dto) {
+            enqueue(SseEmitter.event().name("level").data(dto));
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (closed) return;
+                if (pending.size() == SEND_QUEUE) pending.pollFirst();
+                pending.addLast(event);
+                if (scheduled) return;
+                scheduled = true;
+            }
+            try {
+                sseDispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Servicio apagándose
+                close();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = closed ? null : pending.pollFirst();
+                    if (event == null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (Exception e) {
+                    close();
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            removeListener(stationId, this);
+        }
+
+        void complete() {
+            close();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.ud.metricssoundscalculator.service;
+
+import com.ud.metricssoundscalculator.core.ResultArchiveCodec;
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+import com.ud.metricssoundscalculator.dto.AnalysisParamsDTO;
+import com.ud.metricssoundscalculator.dto.ResultEntryDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Archivo de resultados: cada análisis se escribe en segundo plano en formato binario
+ * compacto ({@link ResultArchiveCodec}) y se indexa por fecha de grabación y por
+ * identificador. El identificador combina el hash del audio con los parámetros del
+ * análisis, de modo que analizar el mismo audio con otros parámetros no pisa el resultado.
+ * El índice se persiste como un log de solo anexado.
+ */
+@Service
+public class ResultArchiveService {
+
+    private static final String EXTENSION = ".msr";
+    private static final String INDEX_FILE = "index.log";
+
+    // Cabecera del índice
+    private static final int INDEX_MAGIC = 0x4D535249; // "MSRI"
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_HEADER_BYTES = 6;
+
+    // Nombres de las grabadoras: "Rec 2025-06-16 16h36m00s 1.wav" (process_audio.py)
+    private static final Pattern RECORDING_NAME =
+            Pattern.compile("Rec (\\d{4}-\\d{2}-\\d{2}) (\\d{2})h(\\d{2})m(\\d{2})s");
+
+    // Orden del índice temporal; el identificador desempata grabaciones con la misma fecha
+    private static final Comparator<ResultEntryDTO> BY_RECORDING =
+            Comparator.comparing(ResultEntryDTO::getRecordedAt).thenComparing(ResultEntryDTO::getId);
+
+    private final Path dir;
+    private final ZoneId recordingZone;
+    private final ExecutorService writer;
+
+    private final Map<String, ResultEntryDTO> byId = new ConcurrentHashMap<>();
+    // Solo entradas con fecha de grabación conocida
+    private final NavigableSet<ResultEntryDTO> byRecording = new ConcurrentSkipListSet<>(BY_RECORDING);
+    // Resultados encolados que aún no llegan a disco; se sirven desde memoria
+    private final Map<String, AcousticAnalysisDTO> pending = new ConcurrentHashMap<>();
+
+    public ResultArchiveService(@Value("${audio.results.dir:results}") String dir,
+                                @Value("${audio.results.queue-capacity:64}") int queueCapacity,
+                                @Value("${audio.results.recording-zone:UTC}") String recordingZone) throws IOException {
+        this.dir = Paths.get(dir);
+        this.recordingZone = ZoneId.of(recordingZone);
+        Files.createDirectories(this.dir);
+        loadIndex();
+
+        // Un único hilo escribe archivos e índice. Si la cola se llena, o el servicio ya se
+        // está apagando, la escritura la hace el hilo de la petición en lugar de descartarla
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "result-archive");
+                    t.setDaemon(true);
+                    return t;
+                },
+                (task, executor) -> task.run());
+    }
+
+    /**
+     * Copia el archivo subido a {@code target} calculando el SHA-256 en la misma pasada.
+     *
+     * @return hash del contenido en hexadecimal
+     */
+    public String transferAndHash(MultipartFile file, File target) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Identificador del resultado: hash del audio más un resumen de los parámetros canónicos.
+     */
+    public static String resultId(String contentHash, AnalysisParamsDTO params) {
+        String canonical = "windowSec=" + params.getWindowSec()
+                + ";thresholds=" + params.getThresholds().stream().map(String::valueOf).collect(Collectors.joining(","))
+                + ";hysteresisDb=" + params.getHysteresisDb()
+                + ";minEventSec=" + params.getMinEventSec()
+                + ";start=" + (params.getStart() == null ? "" : params.getStart())
+                + ";end=" + (params.getEnd() == null ? "" : params.getEnd());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return contentHash + "-" + HexFormat.of().formatHex(digest, 0, 8);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Fecha de grabación a partir del nombre que ponen las grabadoras
+     * ("Rec YYYY-MM-DD HHhMMmSSs ..."), en la zona configurada.
+     *
+     * @return null si el nombre no sigue ese formato
+     */
+    public Instant parseRecordedAt(String fileName) {
+        if (fileName == null) return null;
+        Matcher m = RECORDING_NAME.matcher(fileName);
+        if (!m.find()) return null;
+        try {
+            LocalDateTime local = LocalDate.parse(m.group(1)).atTime(
+                    Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)), Integer.parseInt(m.group(4)));
+            return local.atZone(recordingZone).toInstant();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Encola el resultado para archivarlo. Un nuevo análisis del mismo audio con los mismos
+     * parámetros reemplaza al anterior.
+     *
+     * @param recordedAt fecha de la grabación; null la deja fuera del índice temporal
+     * @return identificador del resultado
+     */
+    public String submit(AcousticAnalysisDTO dto, String contentHash, AnalysisParamsDTO params,
+                         String fileName, Instant recordedAt) {
+        String id = resultId(contentHash, params);
+        pending.put(id, dto);
+        writer.execute(() -> {
+            try {
+                store(dto, id, contentHash, params, fileName, recordedAt);
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                pending.remove(id, dto);
+            }
+        });
+        return id;
+    }
+
+    /**
+     * Resultados cuya grabación cae en [from, to), en orden cronológico. Extremos nulos = sin límite.
+     * Los resultados sin fecha de grabación no aparecen.
+     */
+    public List<ResultEntryDTO> find(Instant from, Instant to) {
+        NavigableSet<ResultEntryDTO> range = byRecording;
+        if (from != null) range = range.tailSet(probe(from), true);
+        if (to != null) range = range.headSet(probe(to), false);
+        return new ArrayList<>(range);
+    }
+
+    /**
+     * Todos los resultados de un mismo audio (uno por combinación de parámetros).
+     */
+    public List<ResultEntryDTO> findByContentHash(String contentHash) {
+        return byId.values().stream()
+                .filter(e -> e.getContentHash().equals(contentHash))
+                .sorted(Comparator.comparing(ResultEntryDTO::getStoredAt))
+                .collect(Collectors.toList());
+    }
+
+    public Optional<ResultEntryDTO> getEntry(String id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Carga un resultado archivado sin volver a analizar el audio.
+     */
+    public Optional<AcousticAnalysisDTO> load(String id) throws IOException {
+        AcousticAnalysisDTO queued = pending.get(id);
+        if (queued != null) return Optional.of(queued);
+
+        ResultEntryDTO entry = byId.get(id);
+        if (entry == null) return Optional.empty();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(dir.resolve(entry.getId() + EXTENSION)), 1 << 16)) {
+            return Optional.of(ResultArchiveCodec.read(in));
+        }
+    }
+
+    // Espera a que se escriban los resultados pendientes (usado al apagar y en pruebas)
+    public void flush() throws InterruptedException, ExecutionException {
+        writer.submit(() -> { }).get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    // Sincronizado: el hilo de escritura y los hilos de petición (cola llena o apagado)
+    // no deben anexar al índice a la vez
+    private synchronized void store(AcousticAnalysisDTO dto, String id, String contentHash, AnalysisParamsDTO params,
+                                    String fileName, Instant recordedAt) throws IOException {
+        // Escritura atómica: un archivo a medias nunca queda con el nombre definitivo
+        Path file = dir.resolve(id + EXTENSION);
+        Path tmp = dir.resolve(id + EXTENSION + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            ResultArchiveCodec.write(dto, out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        ResultEntryDTO entry = new ResultEntryDTO();
+        entry.setId(id);
+        entry.setContentHash(contentHash);
+        entry.setParams(params);
+        // El índice guarda milisegundos; se trunca para que memoria y disco coincidan
+        entry.setRecordedAt(recordedAt == null ? null : recordedAt.truncatedTo(ChronoUnit.MILLIS));
+        entry.setStoredAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        entry.setFileName(fileName);
+        entry.setSizeBytes(Files.size(file));
+
+        Path indexFile = dir.resolve(INDEX_FILE);
+        if (!Files.exists(indexFile) || Files.size(indexFile) == 0) writeIndexHeader(indexFile);
+        try (DataOutputStream index = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(indexFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+            writeIndexRecord(entry, index);
+        }
+        addToIndex(entry);
+    }
+
+    private void loadIndex() throws IOException {
+        Path indexFile = dir.resolve(INDEX_FILE);
+        if (!Files.exists(indexFile) || Files.size(indexFile) == 0) return;
+
+        if (!hasIndexHeader(indexFile)) {
+            throw new IOException("Índice de resultados no soportado: " + indexFile);
+        }
+
+        long validLength;
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(indexFile)));
+             DataInputStream in = new DataInputStream(counter)) {
+            in.skipNBytes(INDEX_HEADER_BYTES);
+            validLength = counter.count;
+            while (true) {
+                ResultEntryDTO entry;
+                try {
+                    entry = readIndexRecord(in);
+                } catch (EOFException | UTFDataFormatException e) {
+                    break; // fin del log (o registro truncado por un apagado abrupto)
+                }
+                validLength = counter.count;
+                if (Files.exists(dir.resolve(entry.getId() + EXTENSION))) {
+                    addToIndex(entry);
+                }
+            }
+        }
+
+        if (validLength < Files.size(indexFile)) {
+            // Se descarta el registro a medias; si no, los siguientes quedarían ilegibles
+            try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+    }
+
+    private static boolean hasIndexHeader(Path indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(indexFile))) {
+            return Files.size(indexFile) >= INDEX_HEADER_BYTES && in.readInt() == INDEX_MAGIC
+                    && in.readShort() == INDEX_VERSION;
+        }
+    }
+
+    private static void writeIndexHeader(Path indexFile) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(indexFile))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeShort(INDEX_VERSION);
+        }
+    }
+
+    // Los registros posteriores del mismo identificador reemplazan a los anteriores
+    private void addToIndex(ResultEntryDTO entry) {
+        ResultEntryDTO previous = byId.put(entry.getId(), entry);
+        if (previous != null && previous.getRecordedAt() != null) byRecording.remove(previous);
+        if (entry.getRecordedAt() != null) byRecording.add(entry);
+    }
+
+    private static void writeIndexRecord(ResultEntryDTO entry, DataOutputStream out) throws IOException {
+        out.writeUTF(entry.getId());
+        out.writeUTF(entry.getContentHash());
+        out.writeBoolean(entry.getRecordedAt() != null);
+        if (entry.getRecordedAt() != null) out.writeLong(entry.getRecordedAt().toEpochMilli());
+        out.writeLong(entry.getStoredAt().toEpochMilli());
+        out.writeUTF(entry.getFileName() == null ? "" : entry.getFileName());
+        out.writeLong(entry.getSizeBytes());
+
+        AnalysisParamsDTO params = entry.getParams();
+        out.writeBoolean(params != null);
+        if (params == null) return;
+        out.writeInt(params.getWindowSec());
+        out.writeInt(params.getThresholds().size());
+        for (double t : params.getThresholds()) out.writeDouble(t);
+        out.writeDouble(params.getHysteresisDb());
+        out.writeDouble(params.getMinEventSec());
+        writeNullableDouble(params.getStart(), out);
+        writeNullableDouble(params.getEnd(), out);
+    }
+
+    private static ResultEntryDTO readIndexRecord(DataInputStream in) throws IOException {
+        ResultEntryDTO entry = new ResultEntryDTO();
+        entry.setId(in.readUTF());
+        entry.setContentHash(in.readUTF());
+        entry.setRecordedAt(in.readBoolean() ? Instant.ofEpochMilli(in.readLong()) : null);
+        entry.setStoredAt(Instant.ofEpochMilli(in.readLong()));
+        entry.setFileName(in.readUTF());
+        entry.setSizeBytes(in.readLong());
+
+        if (in.readBoolean()) {
+            AnalysisParamsDTO params = new AnalysisParamsDTO();
+            params.setWindowSec(in.readInt());
+            List<Double> thresholds = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) thresholds.add(in.readDouble());
+            params.setThresholds(thresholds);
+            params.setHysteresisDb(in.readDouble());
+            params.setMinEventSec(in.readDouble());
+            params.setStart(readNullableDouble(in));
+            params.setEnd(readNullableDouble(in));
+            entry.setParams(params);
+        }
+        return entry;
+    }
+
+    private static void writeNullableDouble(Double value, DataOutputStream out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeDouble(value);
+    }
+
+    private static Double readNullableDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    // Entrada ficticia para acotar el índice temporal ("" ordena antes que cualquier identificador)
+    private static ResultEntryDTO probe(Instant recordedAt) {
+        ResultEntryDTO probe = new ResultEntryDTO();
+        probe.setRecordedAt(recordedAt);
+        probe.setId("");
+        return probe;
+    }
+
+    // Posición de lectura en el log, para saber dónde termina el último registro completo
+    private static class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.ud.metricssoundscalculator.service;
+
+import com.ud.metricssoundscalculator.controller.AudioController;
+import com.ud.metricssoundscalculator.core.AcousticService;
+import com.ud.metricssoundscalculator.core.AudioRange;
+import com.ud.metricssoundscalculator.core.FlacService;
+import com.ud.metricssoundscalculator.service.AdmissionService.AdmissionRejectedException;
+import com.ud.metricssoundscalculator.service.AdmissionService.Reservation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AdmissionServiceTests {
+
+    private static final int FS = 48000;
+    private static final long KIB = 1024;
+
+    @TempDir
+    Path dir;
+
+    // Solo la cabecera: el tamaño del bloque "data" declara la duración
+    private File wavHeader(String name, long frames) throws Exception {
+        long dataBytes = frames * 2;
+        ByteBuffer header = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'}).putInt((int) (36 + dataBytes))
+                .put(new byte[]{'W', 'A', 'V', 'E'})
+                .put(new byte[]{'f', 'm', 't', ' '}).putInt(16)
+                .putShort((short) 1).putShort((short) 1).putInt(FS).putInt(FS * 2)
+                .putShort((short) 2).putShort((short) 16)
+                .put(new byte[]{'d', 'a', 't', 'a'}).putInt((int) dataBytes);
+        File file = dir.resolve(name).toFile();
+        Files.write(file.toPath(), header.array());
+        return file;
+    }
+
+    // Solo "fLaC" + STREAMINFO: frecuencia, canales, bits y muestras totales
+    private File flacHeader(String name, int sampleRate, int channels, int bits, long totalSamples) throws Exception {
+        ByteBuffer header = ByteBuffer.allocate(4 + 4 + 34);
+        header.put(new byte[]{'f', 'L', 'a', 'C'})
+                .putInt(0x80000000 | 34)                      // último bloque, tipo 0, 34 bytes
+                .putShort((short) 4096).putShort((short) 4096) // tamaño de bloque mín./máx.
+                .put(new byte[6])                              // tamaño de trama mín./máx. desconocido
+                .putLong((long) sampleRate << 44 | (long) (channels - 1) << 41
+                        | (long) (bits - 1) << 36 | totalSamples)
+                .put(new byte[16]);                            // MD5
+        File file = dir.resolve(name).toFile();
+        Files.write(file.toPath(), header.array());
+        return file;
+    }
+
+    @Test
+    void estimatesFromWavHeader() throws Exception {
+        AdmissionService service = new AdmissionService(new FlacService(), 512, 1000);
+        File wav = wavHeader("ten.wav", 10L * FS);
+
+        // 960000 bytes PCM + señal y señal ponderada en double
+        assertEquals(960_000 + 2 * 480_000 * 8, service.estimateBytes(wav, false));
+        // + FFT de 2^19 puntos: float[2n] + float[n/2] + double[n/2]
+        assertEquals(960_000 + 2 * 480_000 * 8 + 524_288L * 14, service.estimateBytes(wav, true));
+
+        // Tramo 2-4 s: se decodifica 1 s antes como pre-roll del filtro
+        assertEquals(288_000 + 2 * 144_000 * 8,
+                service.estimateBytes(wav, AudioRange.of(2.0, 4.0), false));
+    }
+
+    @Test
+    void estimatesFromFlacStreamInfo() throws Exception {
+        AdmissionService service = new AdmissionService(new FlacService(), 512, 1000);
+        File flac = flacHeader("ten.flac", 44100, 2, 16, 441_000);
+
+        // Solo la señal ponderada: 10 s estéreo en double
+        assertEquals(2 * 441_000 * 8, service.estimateBytes(flac, false));
+        // Tramo 5-6 s más 1 s de pre-roll
+        assertEquals(2 * 2 * 44_100 * 8, service.estimateBytes(flac, AudioRange.of(5.0, 6.0), false));
+    }
+
+    @Test
+    void waitsInQueueUntilReleased() throws Exception {
+        AdmissionService service = new AdmissionService(new FlacService(), 1, 5000);
+        Reservation first = service.reserve(768 * KIB);
+
+        CompletableFuture<Reservation> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.reserve(512 * KIB);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.getStats().getQueuedRequests() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, service.getStats().getQueuedRequests());
+        assertFalse(second.isDone());
+
+        first.close();
+        try (Reservation admitted = second.get(5, TimeUnit.SECONDS)) {
+            assertEquals(512 * KIB, admitted.getBytes());
+            assertEquals(0, service.getStats().getQueuedRequests());
+            assertEquals(512 * KIB, service.getStats().getReservedBytes());
+        }
+        assertEquals(2, service.getStats().getAdmittedTotal());
+    }
+
+    @Test
+    void rejectsOnTimeoutOrOverBudget() throws Exception {
+        AdmissionService service = new AdmissionService(new FlacService(), 1, 100);
+
+        // Mayor que el presupuesto: se rechaza sin esperar
+        assertThrows(AdmissionRejectedException.class, () -> service.reserve(2 * 1024 * KIB));
+
+        // Cabe en el presupuesto pero no en lo que queda libre: se rechaza al vencer el timeout
+        try (Reservation held = service.reserve(600 * KIB)) {
+            long t0 = System.nanoTime();
+            assertThrows(AdmissionRejectedException.class, () -> service.reserve(600 * KIB));
+            assertTrue(System.nanoTime() - t0 >= TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertEquals(2, service.getStats().getRejectedTotal());
+        assertEquals(0, service.getStats().getQueuedRequests());
+    }
+
+    @Test
+    void rejectionIsServiceUnavailableWithRetryAfter() throws Exception {
+        AdmissionService admission = new AdmissionService(new FlacService(), 1, 100);
+        ResultArchiveService archive = new ResultArchiveService(dir.resolve("results").toString(), 4, "UTC");
+        MockMvc mvc = MockMvcBuilders
+                .standaloneSetup(new AudioController(new AcousticService(), admission, archive))
+                .build();
+
+        // La cabecera declara 1 h: no cabe en 1 MB y se rechaza antes de decodificar
+        byte[] wav = Files.readAllBytes(wavHeader("hour.wav", 3600L * FS).toPath());
+        mvc.perform(multipart("/audio/analyze").file(new MockMultipartFile("file", "hour.wav", "audio/wav", wav)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+        archive.shutdown();
+    }
+
+    @Test
+    void closingAReservationReleasesItOnce() throws Exception {
+        AdmissionService service = new AdmissionService(new FlacService(), 1, 100);
+
+        Reservation reservation = service.reserve(512 * KIB);
+        reservation.close();
+        reservation.close();
+        assertEquals(0, service.getStats().getReservedBytes());
+        assertEquals(0, service.getStats().getActiveRequests());
+
+        // Si la segunda liberación contara, cabría más que el presupuesto completo
+        try (Reservation whole = service.reserve(1024 * KIB)) {
+            assertEquals(1024 * KIB, whole.getBytes());
+            assertThrows(AdmissionRejectedException.class, () -> service.reserve(KIB));
+        }
+    }
+
+    @Test
+    void analysisEstimateUsesWindowSizedFft() throws Exception {
+        AdmissionService service = new AdmissionService(new FlacService(), 4096, 1000);
+
+        // 1 h a 48 kHz: la FFT completa (2^28 puntos) no se calcula en /analyze
+        File hour = wavHeader("hour.wav", 3600L * FS);
+        long fullFft = service.estimateBytes(hour, AudioRange.FULL, true);
+        long signalOnly = service.estimateBytes(hour, AudioRange.FULL, false);
+        long analysis = service.estimateAnalysisBytes(hour, AudioRange.FULL, 60);
+        long gib = 1024L * 1024 * 1024;
+        // 60 tramas de 2^21 bins en double ≈ 1 GiB de espectrograma, frente a 3.5 GiB de la FFT completa
+        assertTrue(analysis - signalOnly > gib);
+        assertTrue(analysis - signalOnly < 1.1 * gib);
+        assertTrue(fullFft - signalOnly > 3 * gib);
+
+        // Más corta que una ventana: sí usa la FFT de toda la señal
+        File shortFile = wavHeader("short.wav", 10L * FS);
+        // más las series de ponderación temporal: 80 valores (10 s / 125 ms) x 3 series x 2 (medias y dB)
+        long series = 6 * 80 * 8;
+        assertEquals(service.estimateBytes(shortFile, AudioRange.FULL, true) + series,
+                service.estimateAnalysisBytes(shortFile, AudioRange.FULL, 60));
+
+        // Estéreo: se suma también la mezcla a mono de los descriptores espectrales
+        File stereo = flacHeader("stereo.flac", FS, 2, 16, 10L * FS);
+        assertEquals(service.estimateBytes(stereo, AudioRange.FULL, true) + 10L * FS * 8 + series,
+                service.estimateAnalysisBytes(stereo, AudioRange.FULL, 60));
+    }
+
+    @Test
+    void timeWeightingEstimateCountsTheSeries() throws Exception {
+        AdmissionService service = new AdmissionService(new FlacService(), 4096, 1000);
+        // 1 h: 28800 valores por serie, unos 1.4 MB entre las tres series y sus copias en dB
+        File hour = wavHeader("hour.wav", 3600L * FS);
+        assertEquals(service.estimateBytes(hour, AudioRange.FULL, false) + 6 * 28_800 * 8,
+                service.estimateTimeWeightingBytes(hour, AudioRange.FULL));
+
+        // Los canales comparten serie: un FLAC estéreo de 10 s tiene 80 valores por serie
+        File stereo = flacHeader("stereo.flac", FS, 2, 16, 10L * FS);
+        assertEquals(service.estimateBytes(stereo, AudioRange.FULL, false) + 6 * 80 * 8,
+                service.estimateTimeWeightingBytes(stereo, AudioRange.FULL));
+    }
+}
@@ -0,0 +1,250 @@
+package com.ud.metricssoundscalculator.service;
+
+import com.ud.metricssoundscalculator.controller.LiveController;
+import com.ud.metricssoundscalculator.core.AcousticService;
+import com.ud.metricssoundscalculator.core.AudioRange;
+import com.ud.metricssoundscalculator.core.WeightingService;
+import com.ud.metricssoundscalculator.dto.LiveLevelDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class LiveMonitorServiceTests {
+
+    @TempDir
+    Path tmp;
+
+    // Grabadora simulada: seno de 1 kHz, PCM 16 bits mono a 48 kHz
+    private static byte[] simulatedRecording(int fs, int seconds) {
+        int n = fs * seconds;
+        byte[] pcm = new byte[n * 2];
+        for (int i = 0; i < n; i++) {
+            short s = (short) (0.5 * Short.MAX_VALUE * Math.sin(2 * Math.PI * 1000 * i / fs));
+            pcm[2 * i] = (byte) s;
+            pcm[2 * i + 1] = (byte) (s >> 8);
+        }
+        return pcm;
+    }
+
+    // Entrega los datos en trozos irregulares, como llegarían por la red
+    private static InputStream chunked(byte[] data) {
+        return new ByteArrayInputStream(data) {
+            private int call = 0;
+
+            @Override
+            public int read(byte[] b) {
+                int len = Math.min(b.length, 997 + (call++ % 7) * 311);
+                return read(b, 0, len);
+            }
+        };
+    }
+
+    // La sesión la crea la grabadora: una conexión sin datos basta para registrarla
+    private static void connect(LiveMonitorService service, String stationId) throws Exception {
+        service.ingest(stationId, new ByteArrayInputStream(new byte[0]), 48000, 1, 16);
+    }
+
+    @Test
+    void pushesFastLevelsIndependentlyOfChunking() throws Exception {
+        byte[] pcm = simulatedRecording(48000, 2);
+
+        LiveMonitorService whole = new LiveMonitorService(600, 1);
+        connect(whole, "a");
+        List<double[]> expected = new ArrayList<>();
+        whole.addListener("a", dto -> expected.add(new double[]{dto.getLevel(), dto.getLeq()}));
+        whole.ingest("a", new ByteArrayInputStream(pcm), 48000, 1, 16);
+
+        LiveMonitorService streamed = new LiveMonitorService(600, 1);
+        connect(streamed, "b");
+        // Se conservan los DTO tal cual: cada bloque debe llegar como una copia propia
+        List<LiveLevelDTO> actual = new ArrayList<>();
+        streamed.addListener("b", actual::add);
+        double seconds = streamed.ingest("b", chunked(pcm), 48000, 1, 16);
+
+        assertEquals(2.0, seconds, 1e-9);
+        assertEquals(16, actual.size()); // 2 s / 125 ms
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), new double[]{actual.get(i).getLevel(), actual.get(i).getLeq()}, 0.0);
+            assertEquals((i + 1) * 0.125, actual.get(i).getElapsedSec(), 1e-9);
+        }
+        assertEquals(16, streamed.getRecentLevels("b").length);
+    }
+
+    @Test
+    void liveLevelsMatchTheFileAnalysis() throws Exception {
+        byte[] pcm = simulatedRecording(48000, 2);
+        LiveMonitorService service = new LiveMonitorService(600, 1);
+        connect(service, "abs");
+        List<LiveLevelDTO> levels = new ArrayList<>();
+        service.addListener("abs", levels::add);
+        service.ingest("abs", new ByteArrayInputStream(pcm), 48000, 1, 16);
+
+        File wav = tmp.resolve("abs.wav").toFile();
+        AudioFormat format = new AudioFormat(48000, 16, 1, true, false);
+        try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(pcm), format, pcm.length / 2)) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, wav);
+        }
+        double fileLeq = new AcousticService().getAnalysis(wav, 1, List.of(65.0), 3, 1, AudioRange.FULL).getLeq();
+
+        // Referencia independiente: muestras con signo, ponderación A y 20 µPa
+        double[] signal = new double[pcm.length / 2];
+        for (int i = 0; i < signal.length; i++) {
+            signal[i] = (short) ((pcm[2 * i] & 0xFF) | (pcm[2 * i + 1] << 8)) / 32768.0;
+        }
+        double sumSq = 0;
+        for (double x : new WeightingService().applyAWeighting(signal, 48000)) sumSq += x * x;
+        double expected = 20 * Math.log10(Math.sqrt(sumSq / signal.length) / 20e-6);
+
+        LiveLevelDTO last = levels.get(levels.size() - 1);
+        assertEquals(expected, last.getLeq(), 1e-6);
+        assertEquals(fileLeq, last.getLeq(), 1e-6);
+        // Tono estable: el nivel Fast del último bloque está en la misma escala que el Leq
+        assertEquals(last.getLeq(), last.getLevel(), 0.1);
+    }
+
+    @Test
+    void slowListenerDoesNotHoldTheSession() throws Exception {
+        LiveMonitorService service = new LiveMonitorService(600, 1);
+        connect(service, "d");
+        CountDownLatch delivered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        service.addListener("d", dto -> {
+            delivered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        CompletableFuture<Double> ingest = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.ingest("d", new ByteArrayInputStream(simulatedRecording(48000, 1)), 48000, 1, 16);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // Con el listener bloqueado, el historial de la sesión sigue accesible
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        double[] recent = CompletableFuture.supplyAsync(() -> service.getRecentLevels("d")).get(5, TimeUnit.SECONDS);
+        assertTrue(recent.length >= 1);
+
+        release.countDown();
+        assertEquals(1.0, ingest.get(5, TimeUnit.SECONDS), 1e-9);
+    }
+
+    @Test
+    void secondProducerOnTheSameStationIsRejected() throws Exception {
+        LiveMonitorService service = new LiveMonitorService(600, 1);
+        PipedOutputStream recorder = new PipedOutputStream();
+        PipedInputStream stream = new PipedInputStream(recorder);
+        CompletableFuture<Double> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.ingest("e", stream, 48000, 1, 16);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // Esperar a que la primera grabadora quede conectada
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                service.getRecentLevels("e");
+                break;
+            } catch (NoSuchElementException e) {
+                assertTrue(System.nanoTime() < deadline);
+                Thread.sleep(10);
+            }
+        }
+
+        assertThrows(IllegalStateException.class,
+                () -> service.ingest("e", new ByteArrayInputStream(simulatedRecording(48000, 1)), 48000, 1, 16));
+
+        recorder.write(simulatedRecording(48000, 1));
+        recorder.close();
+        assertEquals(1.0, first.get(5, TimeUnit.SECONDS), 1e-9);
+        assertEquals(8, service.getRecentLevels("e").length);
+
+        // Desconectada la primera, otra grabadora puede continuar la sesión
+        service.ingest("e", new ByteArrayInputStream(simulatedRecording(48000, 1)), 48000, 1, 16);
+        assertEquals(16, service.getRecentLevels("e").length);
+    }
+
+    @Test
+    void onlyIngestCreatesSessionsAndIdleOnesAreEvicted() throws Exception {
+        LiveMonitorService service = new LiveMonitorService(0, 1);
+        assertThrows(NoSuchElementException.class, () -> service.getRecentLevels("f"));
+        assertThrows(NoSuchElementException.class, () -> service.subscribe("f"));
+        assertThrows(NoSuchElementException.class, () -> service.addListener("f", dto -> { }));
+
+        // Sin tiempo de espera, la sesión se cierra en cuanto la grabadora se desconecta
+        service.ingest("f", new ByteArrayInputStream(simulatedRecording(48000, 1)), 48000, 1, 16);
+        assertThrows(NoSuchElementException.class, () -> service.getRecentLevels("f"));
+    }
+
+    @Test
+    void rejectsUnsupportedSampleRate() {
+        LiveMonitorService service = new LiveMonitorService(600, 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> service.ingest("c", new ByteArrayInputStream(new byte[0]), 22050, 1, 16));
+    }
+
+    @Test
+    void controllerStreamsHistoryAndLevelsOverSse() throws Exception {
+        LiveMonitorService service = new LiveMonitorService(600, 1);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new LiveController(service)).build();
+
+        mvc.perform(get("/live/g/levels")).andExpect(status().isNotFound());
+        mvc.perform(get("/live/g/recent")).andExpect(status().isNotFound());
+
+        mvc.perform(post("/live/g/ingest").contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(simulatedRecording(48000, 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.seconds").value(1.0));
+        mvc.perform(get("/live/g/recent")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(8));
+
+        MvcResult sse = mvc.perform(get("/live/g/levels")).andExpect(request().asyncStarted()).andReturn();
+        service.ingest("g", new ByteArrayInputStream(simulatedRecording(48000, 1)), 48000, 1, 16);
+
+        // 1 evento de historial + 8 niveles, enviados desde el despachador compartido
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String body = sse.getResponse().getContentAsString();
+        while (body.split("event:level", -1).length - 1 < 8 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = sse.getResponse().getContentAsString();
+        }
+        assertTrue(body.startsWith("event:history"));
+        assertEquals(8, body.split("event:level", -1).length - 1);
+        assertTrue(body.contains("\"stationId\":\"g\""));
+        service.shutdown();
+    }
+}
@@ -0,0 +1,157 @@
+package com.ud.metricssoundscalculator.service;
+
+import com.ud.metricssoundscalculator.dto.AcousticAnalysisDTO;
+import com.ud.metricssoundscalculator.dto.AnalysisParamsDTO;
+import com.ud.metricssoundscalculator.dto.ResultEntryDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultArchiveServiceTests {
+
+    @TempDir
+    Path dir;
+
+    private static AcousticAnalysisDTO analysis(double leq) {
+        AcousticAnalysisDTO dto = new AcousticAnalysisDTO();
+        dto.setSampleRate(48000);
+        dto.setChannels(1);
+        dto.setWeighting("A");
+        dto.setLeq(leq);
+        dto.setLn(Map.of("L10", leq + 3));
+        dto.setLevels(new double[]{leq - 1, leq, leq + 1});
+        dto.setSpectrogram(new double[][]{{0.5f, 0.25f}, {0.125f, 1f}});
+        return dto;
+    }
+
+    private static AnalysisParamsDTO params(int windowSec, Double start) {
+        AnalysisParamsDTO params = new AnalysisParamsDTO();
+        params.setWindowSec(windowSec);
+        params.setThresholds(List.of(65.0, 70.0));
+        params.setHysteresisDb(3);
+        params.setMinEventSec(1);
+        params.setStart(start);
+        return params;
+    }
+
+    private ResultArchiveService open() throws Exception {
+        return new ResultArchiveService(dir.toString(), 4, "UTC");
+    }
+
+    @Test
+    void indexesByRecordingTimeAndSurvivesRestart() throws Exception {
+        Instant t0 = Instant.parse("2025-03-01T08:00:00Z");
+
+        ResultArchiveService archive = open();
+        String a = archive.submit(analysis(60), "aa", params(60, null), "a.wav", t0.plusSeconds(3600));
+        String b = archive.submit(analysis(70), "bb", params(60, null), "b.wav", t0);
+        String c = archive.submit(analysis(80), "cc", params(60, null), "c.wav", t0.plusSeconds(7200));
+        // Un nuevo análisis del mismo audio con los mismos parámetros reemplaza al anterior
+        assertEquals(a, archive.submit(analysis(65), "aa", params(60, null), "a.wav", t0.plusSeconds(3600)));
+        archive.flush();
+        archive.shutdown();
+
+        ResultArchiveService reopened = open();
+
+        List<ResultEntryDTO> all = reopened.find(null, null);
+        assertEquals(List.of(b, a, c), all.stream().map(ResultEntryDTO::getId).toList());
+
+        List<ResultEntryDTO> firstTwoHours = reopened.find(t0, t0.plusSeconds(7200));
+        assertEquals(List.of("bb", "aa"), firstTwoHours.stream().map(ResultEntryDTO::getContentHash).toList());
+        assertEquals("a.wav", firstTwoHours.get(1).getFileName());
+        assertEquals(60, firstTwoHours.get(1).getParams().getWindowSec());
+        assertEquals(List.of(65.0, 70.0), firstTwoHours.get(1).getParams().getThresholds());
+
+        AcousticAnalysisDTO loaded = reopened.load(a).orElseThrow();
+        assertEquals(65, loaded.getLeq(), 0.0);
+        assertEquals(68, loaded.getLn().get("L10"), 0.0);
+        assertArrayEquals(new double[]{64, 65, 66}, loaded.getLevels(), 0.0);
+        assertArrayEquals(new double[]{0.125, 1}, loaded.getSpectrogram()[1], 0.0);
+
+        assertTrue(reopened.load("zz").isEmpty());
+        reopened.shutdown();
+    }
+
+    @Test
+    void otherParametersKeepTheirOwnResult() throws Exception {
+        Instant t0 = Instant.parse("2025-03-01T08:00:00Z");
+
+        ResultArchiveService archive = open();
+        String full = archive.submit(analysis(60), "aa", params(60, null), "a.wav", t0);
+        String window = archive.submit(analysis(61), "aa", params(1, null), "a.wav", t0);
+        String range = archive.submit(analysis(62), "aa", params(60, 10.0), "a.wav", t0);
+        archive.flush();
+
+        assertEquals(3, List.of(full, window, range).stream().distinct().count());
+        assertEquals(60, archive.load(full).orElseThrow().getLeq(), 0.0);
+        assertEquals(61, archive.load(window).orElseThrow().getLeq(), 0.0);
+        assertEquals(62, archive.load(range).orElseThrow().getLeq(), 0.0);
+        assertEquals(3, archive.findByContentHash("aa").size());
+        assertEquals(10.0, archive.getEntry(range).orElseThrow().getParams().getStart());
+        archive.shutdown();
+    }
+
+    @Test
+    void recordingDateComesFromTheFileNameOrIsLeftOut() throws Exception {
+        ResultArchiveService archive = open();
+        assertEquals(Instant.parse("2025-06-16T16:36:00Z"), archive.parseRecordedAt("Rec 2025-06-16 16h36m00s 1.wav"));
+        assertNull(archive.parseRecordedAt("upload.wav"));
+        assertNull(archive.parseRecordedAt(null));
+
+        // Sin fecha: se archiva y se puede cargar, pero no entra en el índice temporal
+        String id = archive.submit(analysis(60), "aa", params(60, null), "upload.wav", null);
+        archive.flush();
+        archive.shutdown();
+
+        ResultArchiveService reopened = open();
+        assertTrue(reopened.find(null, null).isEmpty());
+        assertNull(reopened.getEntry(id).orElseThrow().getRecordedAt());
+        assertEquals(60, reopened.load(id).orElseThrow().getLeq(), 0.0);
+        reopened.shutdown();
+    }
+
+    @Test
+    void truncatedIndexRecordIsDiscardedSoLaterRecordsSurvive() throws Exception {
+        Instant t0 = Instant.parse("2025-03-01T08:00:00Z");
+
+        ResultArchiveService archive = open();
+        String a = archive.submit(analysis(60), "aa", params(60, null), "a.wav", t0);
+        archive.flush();
+        archive.shutdown();
+
+        // Apagado abrupto a mitad de un registro
+        Path index = dir.resolve("index.log");
+        long before = Files.size(index);
+        Files.write(index, new byte[]{0, 40, 'b', 'b'}, StandardOpenOption.APPEND);
+
+        ResultArchiveService recovered = open();
+        assertEquals(before, Files.size(index));
+        String b = recovered.submit(analysis(70), "bb", params(60, null), "b.wav", t0.plusSeconds(60));
+        recovered.flush();
+        recovered.shutdown();
+
+        ResultArchiveService reopened = open();
+        assertEquals(List.of(a, b), reopened.find(null, null).stream().map(ResultEntryDTO::getId).toList());
+        reopened.shutdown();
+    }
+
+    @Test
+    void submitAfterShutdownIsWrittenSynchronously() throws Exception {
+        ResultArchiveService archive = open();
+        archive.shutdown();
+
+        String id = archive.submit(analysis(60), "aa", params(60, null), "a.wav", Instant.EPOCH);
+        assertTrue(Files.exists(dir.resolve(id + ".msr")));
+        assertEquals(60, archive.load(id).orElseThrow().getLeq(), 0.0);
+
+        assertEquals(List.of(id), open().find(null, null).stream().map(ResultEntryDTO::getId).toList());
+    }
+}